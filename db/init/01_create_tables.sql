@@ -33,13 +33,26 @@ CREATE TABLE IF NOT EXISTS events (
     location VARCHAR(255) NOT NULL,
     latitude DECIMAL(10, 8),
     longitude DECIMAL(11, 8),
+    geohash VARCHAR(12),
     max_capacity INTEGER,
     cover_image VARCHAR(255),
     visibility VARCHAR(20) DEFAULT 'PUBLIC' CHECK (visibility IN ('PUBLIC', 'PRIVATE')),
     status VARCHAR(20) DEFAULT 'DRAFT' CHECK (status IN ('DRAFT', 'PUBLISHED', 'CANCELLED', 'ARCHIVED')),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    deleted_at TIMESTAMP
+    deleted_at TIMESTAMP,
+    counters_updated_at TIMESTAMP,
+    participant_count BIGINT NOT NULL DEFAULT 0,
+    comment_count BIGINT NOT NULL DEFAULT 0,
+    comments_updated_at TIMESTAMP,
+    favorite_count BIGINT NOT NULL DEFAULT 0,
+    rating_count BIGINT NOT NULL DEFAULT 0,
+    rating_sum BIGINT NOT NULL DEFAULT 0,
+    rating_1_count BIGINT NOT NULL DEFAULT 0,
+    rating_2_count BIGINT NOT NULL DEFAULT 0,
+    rating_3_count BIGINT NOT NULL DEFAULT 0,
+    rating_4_count BIGINT NOT NULL DEFAULT 0,
+    rating_5_count BIGINT NOT NULL DEFAULT 0
 );
 
 -- Participants Table (User-Event Relationship)
@@ -82,6 +95,31 @@ CREATE TABLE IF NOT EXISTS favorites (
     UNIQUE(event_id, user_id)
 );
 
+-- Events removed together with their organizer's account (delta sync tombstones)
+CREATE TABLE IF NOT EXISTS event_tombstones (
+    event_id INTEGER PRIMARY KEY,
+    deleted_at TIMESTAMP NOT NULL
+);
+
+-- Operation ids of applied offline mutations, kept for a while so replays are not applied twice
+CREATE TABLE IF NOT EXISTS client_mutations (
+    id SERIAL PRIMARY KEY,
+    user_id INTEGER NOT NULL,
+    client_operation_id VARCHAR(64) NOT NULL,
+    resource_id INTEGER,
+    applied_at TIMESTAMP NOT NULL,
+    UNIQUE(user_id, client_operation_id)
+);
+
+-- Users waiting for a seat at a full event, promoted in id order
+CREATE TABLE IF NOT EXISTS waitlist_entries (
+    id SERIAL PRIMARY KEY,
+    event_id INTEGER NOT NULL REFERENCES events(id) ON DELETE CASCADE,
+    user_id INTEGER NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(event_id, user_id)
+);
+
 -- Indexes for performance optimization
 CREATE INDEX IF NOT EXISTS idx_events_category ON events(category_id);
 CREATE INDEX IF NOT EXISTS idx_events_organizer ON events(organizer_id);
@@ -92,3 +130,27 @@ CREATE INDEX IF NOT EXISTS idx_comments_event ON comments(event_id);
 CREATE INDEX IF NOT EXISTS idx_ratings_event ON ratings(event_id);
 CREATE INDEX IF NOT EXISTS idx_favorites_event ON favorites(event_id);
 CREATE INDEX IF NOT EXISTS idx_favorites_user ON favorites(user_id);
+
+-- Keyset pagination (cursor = sort column + id)
+CREATE INDEX IF NOT EXISTS idx_events_start_date_id ON events(start_date, id);
+CREATE INDEX IF NOT EXISTS idx_events_category_start_date_id ON events(category_id, start_date, id);
+CREATE INDEX IF NOT EXISTS idx_events_organizer_created ON events(organizer_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_events_created_at_id ON events(created_at, id);
+CREATE INDEX IF NOT EXISTS idx_favorites_user_created ON favorites(user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_comments_event_created ON comments(event_id, created_at DESC, id DESC);
+
+-- Nearby events (geohash prefix ranges)
+CREATE INDEX IF NOT EXISTS idx_events_geohash ON events(geohash);
+
+-- Delta sync (changes after an updated_at watermark)
+CREATE INDEX IF NOT EXISTS idx_events_updated_at_id ON events(updated_at, id);
+
+-- Feed snapshot refresh (counter changes made on other nodes)
+CREATE INDEX IF NOT EXISTS idx_events_counters_updated_at ON events(counters_updated_at);
+CREATE INDEX IF NOT EXISTS idx_event_tombstones_deleted_at ON event_tombstones(deleted_at);
+
+-- Expiry of offline mutation ids
+CREATE INDEX IF NOT EXISTS idx_client_mutations_applied_at ON client_mutations(applied_at);
+
+-- Waitlist head lookup
+CREATE INDEX IF NOT EXISTS idx_waitlist_entries_event_id ON waitlist_entries(event_id, id);
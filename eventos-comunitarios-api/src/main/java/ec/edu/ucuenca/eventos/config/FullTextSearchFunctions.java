@@ -0,0 +1,42 @@
+package ec.edu.ucuenca.eventos.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.function.SqlColumn;
+import org.hibernate.query.sqm.function.SqmFunctionRegistry;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Functions that let criteria queries use the full-text search objects created
+ * by {@link FullTextSearchSchemaInitializer}. They render the same SQL as the
+ * index definitions, so Postgres can still use the GIN indexes:
+ * <ul>
+ *   <li>{@code search_vector(e.id)}: the generated tsvector column of the event row</li>
+ *   <li>{@code text_matches(vector, text)}: {@code vector @@ query} for a web search string</li>
+ *   <li>{@code text_rank(vector, text)}: {@code ts_rank} of the vector for that query</li>
+ *   <li>{@code unaccent_lower(text)}: the folded text indexed by idx_events_title_trgm</li>
+ * </ul>
+ * Registered through META-INF/services.
+ */
+public class FullTextSearchFunctions implements FunctionContributor {
+    
+    private static final String TSQUERY = "websearch_to_tsquery('es_unaccent', immutable_unaccent(?2))";
+    
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        SqmFunctionRegistry functions = functionContributions.getFunctionRegistry();
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        
+        // search_vector is not mapped on Event: Hibernate would load it with every
+        // event and create it as a plain column before the initializer runs
+        functions.register("search_vector",
+                new SqlColumn("search_vector", types.resolve(StandardBasicTypes.STRING)));
+        functions.registerPattern("text_matches", "(?1 @@ " + TSQUERY + ")",
+                types.resolve(StandardBasicTypes.BOOLEAN));
+        functions.registerPattern("text_rank", "ts_rank(?1, " + TSQUERY + ")",
+                types.resolve(StandardBasicTypes.FLOAT));
+        functions.registerPattern("unaccent_lower", "immutable_unaccent(lower(?1))",
+                types.resolve(StandardBasicTypes.STRING));
+    }
+}
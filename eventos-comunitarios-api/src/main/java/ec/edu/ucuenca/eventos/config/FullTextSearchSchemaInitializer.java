@@ -0,0 +1,38 @@
+package ec.edu.ucuenca.eventos.config;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Creates the Postgres objects used by event search (extensions, text search
+ * configuration, generated tsvector column and GIN indexes) that Hibernate's
+ * schema update cannot manage.
+ */
+@Component
+@RequiredArgsConstructor
+public class FullTextSearchSchemaInitializer implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(FullTextSearchSchemaInitializer.class);
+    
+    private static final String SCRIPT = "db/full-text-search.sql";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            String script = new ClassPathResource(SCRIPT).getContentAsString(StandardCharsets.UTF_8);
+            jdbcTemplate.execute(script);
+        } catch (Exception ex) {
+            logger.error("Could not initialize full-text search schema, event search will fail", ex);
+        }
+    }
+}
@@ -3,9 +3,14 @@ package ec.edu.ucuenca.eventos.controller;
 import ec.edu.ucuenca.eventos.model.Category;
 import ec.edu.ucuenca.eventos.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -16,16 +21,45 @@ public class CategoryController {
     
     private final CategoryRepository categoryRepository;
     
+    // Categories rarely change: clients may reuse them for an hour, then revalidate with the ETag
+    private static final CacheControl CATEGORIES_CACHE_CONTROL = CacheControl.maxAge(Duration.ofHours(1)).cachePublic();
+    
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        List<Category> categories = categoryRepository.findAll();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<List<Category>> getAllCategories(WebRequest webRequest) {
+        List<Category> categories = categoryRepository.findAllByOrderByNameAsc();
+        String etag = etag(categories);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CATEGORIES_CACHE_CONTROL)
+                .eTag(etag)
+                .body(categories);
     }
     
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
+    public ResponseEntity<Category> getCategoryById(@PathVariable Long id, WebRequest webRequest) {
         Category category = categoryRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Category not found"));
-        return ResponseEntity.ok(category);
+        String etag = etag(List.of(category));
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CATEGORIES_CACHE_CONTROL)
+                .eTag(etag)
+                .body(category);
+    }
+    
+    // Version of the categories, derived from their content
+    private static String etag(List<Category> categories) {
+        StringBuilder content = new StringBuilder();
+        for (Category category : categories) {
+            content.append(category.getId()).append('|')
+                    .append(category.getName()).append('|')
+                    .append(category.getDescription()).append('|')
+                    .append(category.getIcon()).append('\n');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
     }
 }
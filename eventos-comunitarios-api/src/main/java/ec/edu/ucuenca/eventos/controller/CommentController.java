@@ -2,17 +2,20 @@ package ec.edu.ucuenca.eventos.controller;
 
 import ec.edu.ucuenca.eventos.dto.CommentRequest;
 import ec.edu.ucuenca.eventos.dto.CommentResponse;
+import ec.edu.ucuenca.eventos.dto.CursorPage;
 import ec.edu.ucuenca.eventos.security.JwtTokenProvider;
 import ec.edu.ucuenca.eventos.service.CommentService;
+import ec.edu.ucuenca.eventos.service.ResourceVersions;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -22,6 +25,7 @@ import java.util.Map;
 public class CommentController {
     
     private final CommentService commentService;
+    private final ResourceVersions resourceVersions;
     private final JwtTokenProvider tokenProvider;
     
     @PostMapping
@@ -58,14 +62,30 @@ public class CommentController {
         return ResponseEntity.ok(Map.of("message", "Comment deleted successfully"));
     }
     
+    // Newest first, keyset paginated: pass the nextCursor of a page to get the following one
     @GetMapping
-    public ResponseEntity<List<CommentResponse>> getEventComments(
+    public ResponseEntity<CursorPage<CommentResponse>> getEventComments(
             @PathVariable Long eventId,
-            HttpServletRequest httpRequest
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest,
+            WebRequest webRequest
     ) {
         Long userId = getUserIdFromRequestOptional(httpRequest);
-        List<CommentResponse> comments = commentService.getEventComments(eventId, userId);
-        return ResponseEntity.ok(comments);
+        ResourceVersions.ResourceVersion version = resourceVersions.eventComments(eventId, userId, cursor, limit);
+        if (version == null) {
+            return ResponseEntity.ok(commentService.getEventComments(eventId, userId, cursor, limit));
+        }
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            // 304 already written, nothing is mapped or serialized
+            return null;
+        }
+        CursorPage<CommentResponse> comments = commentService.getEventComments(eventId, userId, cursor, limit);
+        return ResponseEntity.ok()
+                .eTag(version.etag())
+                .lastModified(version.lastModified())
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .body(comments);
     }
     
     private Long getUserIdFromRequest(HttpServletRequest request) {
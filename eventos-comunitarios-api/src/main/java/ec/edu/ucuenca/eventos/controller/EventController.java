@@ -1,21 +1,35 @@
 package ec.edu.ucuenca.eventos.controller;
 
+import ec.edu.ucuenca.eventos.dto.CursorPage;
+import ec.edu.ucuenca.eventos.dto.EventChangesResponse;
+import ec.edu.ucuenca.eventos.dto.EventMapResponse;
 import ec.edu.ucuenca.eventos.dto.EventRequest;
 import ec.edu.ucuenca.eventos.dto.EventResponse;
+import ec.edu.ucuenca.eventos.dto.EventSearchRequest;
+import ec.edu.ucuenca.eventos.dto.EventSummary;
 import ec.edu.ucuenca.eventos.security.JwtTokenProvider;
+import ec.edu.ucuenca.eventos.service.EventMapService;
 import ec.edu.ucuenca.eventos.service.EventService;
+import ec.edu.ucuenca.eventos.service.EventStreamHub;
+import ec.edu.ucuenca.eventos.service.ResourceVersions;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @RestController
@@ -25,6 +39,9 @@ import java.util.Map;
 public class EventController {
     
     private final EventService eventService;
+    private final EventMapService eventMapService;
+    private final EventStreamHub eventStreamHub;
+    private final ResourceVersions resourceVersions;
     private final JwtTokenProvider tokenProvider;
     
     @PostMapping
@@ -88,48 +105,258 @@ public class EventController {
         return ResponseEntity.ok(Map.of("message", "Event archived successfully"));
     }
     
-    @GetMapping
-    public ResponseEntity<List<EventResponse>> getPublicEvents(HttpServletRequest httpRequest) {
+    // The body is written from pre-serialized event JSON, see EventJsonCache
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getPublicEvents(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest,
+            WebRequest webRequest
+    ) {
         Long userId = getUserIdFromRequestOptional(httpRequest);
-        List<EventResponse> events = eventService.getPublicEvents(userId);
-        return ResponseEntity.ok(events);
+        boolean gzip = acceptsGzip(httpRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        
+        // The gzipped body is a different representation, so it gets its own strong ETag
+        ResourceVersions.ResourceVersion version = resourceVersions.publicFeed(userId);
+        if (gzip) {
+            String etag = version.etag();
+            version = new ResourceVersions.ResourceVersion(
+                    etag.substring(0, etag.length() - 1) + "-gzip\"", version.lastModified());
+        }
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            // 304 already written, nothing is mapped or serialized
+            return null;
+        }
+        byte[] events = eventService.getPublicEventsJson(userId, cursor, limit, gzip);
+        
+        ResponseEntity.BodyBuilder response = conditional(version)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(events);
+    }
+    
+    // Summaries carry no user flags, so every caller gets the same page and ETag
+    @GetMapping(params = "view=summary")
+    public ResponseEntity<CursorPage<EventSummary>> getPublicEventSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            WebRequest webRequest
+    ) {
+        ResourceVersions.ResourceVersion version = resourceVersions.publicFeed(null);
+        String etag = version.etag().substring(0, version.etag().length() - 1) + "-summary\"";
+        if (webRequest.checkNotModified(etag, version.lastModified())) {
+            return null;
+        }
+        CursorPage<EventSummary> events = eventService.getPublicEventSummaries(cursor, limit);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(version.lastModified())
+                .body(events);
     }
     
     @GetMapping("/{id}")
     public ResponseEntity<EventResponse> getEventById(
             @PathVariable Long id,
-            HttpServletRequest httpRequest
+            HttpServletRequest httpRequest,
+            WebRequest webRequest
     ) {
         Long userId = getUserIdFromRequestOptional(httpRequest);
+        ResourceVersions.ResourceVersion version = resourceVersions.event(id, userId);
+        if (version == null) {
+            return ResponseEntity.ok(eventService.getEventById(id, userId));
+        }
+        if (webRequest.checkNotModified(version.etag(), version.lastModified())) {
+            return null;
+        }
         EventResponse event = eventService.getEventById(id, userId);
-        return ResponseEntity.ok(event);
+        return conditional(version).body(event);
+    }
+    
+    /**
+     * Server-Sent Events with the event's comment activity and counter changes, see
+     * {@link EventStreamHub}. Clients reload the event and its comments when they reconnect.
+     * Events that are private or not published can only be followed by their organizer
+     * and participants.
+     */
+    @GetMapping("/{id}/stream")
+    public SseEmitter streamEvent(@PathVariable Long id, HttpServletRequest httpRequest) {
+        eventService.checkCanFollow(id, getUserIdFromRequestOptional(httpRequest));
+        return eventStreamHub.subscribe(id);
     }
     
     @GetMapping("/my-events")
-    public ResponseEntity<List<EventResponse>> getMyEvents(HttpServletRequest httpRequest) {
+    public ResponseEntity<CursorPage<EventResponse>> getMyEvents(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest
+    ) {
         Long userId = getUserIdFromRequest(httpRequest);
-        List<EventResponse> events = eventService.getMyEvents(userId);
+        CursorPage<EventResponse> events = eventService.getMyEvents(userId, cursor, limit);
         return ResponseEntity.ok(events);
     }
-
+    
+    @GetMapping(value = "/my-events", params = "view=summary")
+    public ResponseEntity<CursorPage<EventSummary>> getMyEventSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest
+    ) {
+        Long userId = getUserIdFromRequest(httpRequest);
+        CursorPage<EventSummary> events = eventService.getMyEventSummaries(userId, cursor, limit);
+        return ResponseEntity.ok(events);
+    }
+    
     @GetMapping("/attending")
-    public ResponseEntity<List<EventResponse>> getAttendingEvents(HttpServletRequest httpRequest) {
+    public ResponseEntity<CursorPage<EventResponse>> getAttendingEvents(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest
+    ) {
         Long userId = getUserIdFromRequest(httpRequest);
-        List<EventResponse> events = eventService.getAttendingEvents(userId);
+        CursorPage<EventResponse> events = eventService.getAttendingEvents(userId, cursor, limit);
         return ResponseEntity.ok(events);
     }
-
+    
+    @GetMapping(value = "/attending", params = "view=summary")
+    public ResponseEntity<CursorPage<EventSummary>> getAttendingEventSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest
+    ) {
+        Long userId = getUserIdFromRequest(httpRequest);
+        CursorPage<EventSummary> events = eventService.getAttendingEventSummaries(userId, cursor, limit);
+        return ResponseEntity.ok(events);
+    }
+    
     @GetMapping("/search")
-    public ResponseEntity<List<EventResponse>> searchEvents(
-            @RequestParam(required = false) String q,
+    public ResponseEntity<CursorPage<EventResponse>> searchEvents(
+            @ParameterObject EventSearchRequest search,
+            HttpServletRequest httpRequest
+    ) {
+        Long userId = getUserIdFromRequestOptional(httpRequest);
+        CursorPage<EventResponse> events = eventService.searchEvents(search, userId);
+        return ResponseEntity.ok(events);
+    }
+    
+    @GetMapping(value = "/search", params = "view=summary")
+    public ResponseEntity<CursorPage<EventSummary>> searchEventSummaries(@ParameterObject EventSearchRequest search) {
+        CursorPage<EventSummary> events = eventService.searchEventSummaries(search);
+        return ResponseEntity.ok(events);
+    }
+    
+    @GetMapping("/nearby")
+    public ResponseEntity<List<EventResponse>> getNearbyEvents(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest
+    ) {
+        Long userId = getUserIdFromRequestOptional(httpRequest);
+        List<EventResponse> events = eventService.getNearbyEvents(lat, lng, radiusKm, limit, userId);
+        return ResponseEntity.ok(events);
+    }
+    
+    @GetMapping(value = "/nearby", params = "view=summary")
+    public ResponseEntity<List<EventSummary>> getNearbyEventSummaries(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) Integer limit
+    ) {
+        List<EventSummary> events = eventService.getNearbyEventSummaries(lat, lng, radiusKm, limit);
+        return ResponseEntity.ok(events);
+    }
+    
+    @GetMapping("/trending")
+    public ResponseEntity<List<EventResponse>> getTrendingEvents(
             @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Integer limit,
             HttpServletRequest httpRequest
     ) {
         Long userId = getUserIdFromRequestOptional(httpRequest);
-        List<EventResponse> events = eventService.searchEvents(q, categoryId, userId);
+        List<EventResponse> events = eventService.getTrendingEvents(categoryId, limit, userId);
+        return ResponseEntity.ok(events);
+    }
+    
+    @GetMapping(value = "/trending", params = "view=summary")
+    public ResponseEntity<List<EventSummary>> getTrendingEventSummaries(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Integer limit
+    ) {
+        List<EventSummary> events = eventService.getTrendingEventSummaries(categoryId, limit);
         return ResponseEntity.ok(events);
     }
     
+    @GetMapping("/changes")
+    public ResponseEntity<EventChangesResponse> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest
+    ) {
+        Long userId = getUserIdFromRequestOptional(httpRequest);
+        EventChangesResponse changes = eventService.getChanges(since, limit, userId);
+        return ResponseEntity.ok(changes);
+    }
+    
+    @GetMapping("/map")
+    public ResponseEntity<EventMapResponse> getMapMarkers(
+            @RequestParam double minLat,
+            @RequestParam double minLng,
+            @RequestParam double maxLat,
+            @RequestParam double maxLng,
+            @RequestParam int zoom
+    ) {
+        EventMapResponse markers = eventMapService.getMarkers(minLat, minLng, maxLat, maxLng, zoom);
+        return ResponseEntity.ok(markers);
+    }
+    
+    // Responses carry the caller's flags, so caches must key them by the Authorization header
+    private ResponseEntity.BodyBuilder conditional(ResourceVersions.ResourceVersion version) {
+        return ResponseEntity.ok()
+                .eTag(version.etag())
+                .lastModified(version.lastModified())
+                .varyBy(HttpHeaders.AUTHORIZATION);
+    }
+    
+    // True when the Accept-Encoding header gives gzip (or *, when gzip is not listed) a
+    // non-zero q-value, so "gzip;q=0" and "*;q=0" are refused as the RFC requires
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double anyQuality = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.equals("gzip") && !name.equals("x-gzip") && !name.equals("*")) {
+                continue;
+            }
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException ex) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (name.equals("*")) {
+                anyQuality = quality;
+            } else {
+                gzipQuality = gzipQuality == null ? quality : Math.max(gzipQuality, quality);
+            }
+        }
+        Double quality = gzipQuality != null ? gzipQuality : anyQuality;
+        return quality != null && quality > 0;
+    }
+    
     private Long getUserIdFromRequest(HttpServletRequest request) {
         String jwt = getJwtFromRequest(request);
         if (jwt != null) {
@@ -1,6 +1,8 @@
 package ec.edu.ucuenca.eventos.controller;
 
+import ec.edu.ucuenca.eventos.dto.CursorPage;
 import ec.edu.ucuenca.eventos.dto.EventResponse;
+import ec.edu.ucuenca.eventos.dto.EventSummary;
 import ec.edu.ucuenca.eventos.security.JwtTokenProvider;
 import ec.edu.ucuenca.eventos.service.FavoriteService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,7 +11,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -48,9 +49,24 @@ public class FavoriteController {
     }
     
     @GetMapping("/users/favorites")
-    public ResponseEntity<List<EventResponse>> getUserFavorites(HttpServletRequest httpRequest) {
+    public ResponseEntity<CursorPage<EventResponse>> getUserFavorites(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest
+    ) {
+        Long userId = getUserIdFromRequest(httpRequest);
+        CursorPage<EventResponse> favorites = favoriteService.getUserFavorites(userId, cursor, limit);
+        return ResponseEntity.ok(favorites);
+    }
+    
+    @GetMapping(value = "/users/favorites", params = "view=summary")
+    public ResponseEntity<CursorPage<EventSummary>> getUserFavoriteSummaries(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            HttpServletRequest httpRequest
+    ) {
         Long userId = getUserIdFromRequest(httpRequest);
-        List<EventResponse> favorites = favoriteService.getUserFavorites(userId);
+        CursorPage<EventSummary> favorites = favoriteService.getUserFavoriteSummaries(userId, cursor, limit);
         return ResponseEntity.ok(favorites);
     }
     
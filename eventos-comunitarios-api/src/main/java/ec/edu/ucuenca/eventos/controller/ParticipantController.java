@@ -1,14 +1,28 @@
 package ec.edu.ucuenca.eventos.controller;
 
+import ec.edu.ucuenca.eventos.dto.CheckInRequest;
+import ec.edu.ucuenca.eventos.dto.CheckInResponse;
+import ec.edu.ucuenca.eventos.dto.RegistrationTicketResponse;
+import ec.edu.ucuenca.eventos.exception.BadRequestException;
 import ec.edu.ucuenca.eventos.model.AttendanceStatus;
 import ec.edu.ucuenca.eventos.security.JwtTokenProvider;
+import ec.edu.ucuenca.eventos.service.AttendeeExportService;
 import ec.edu.ucuenca.eventos.service.ParticipantService;
+import ec.edu.ucuenca.eventos.service.RegistrationWaitingRoom;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.net.URI;
 import java.util.Map;
 
 @RestController
@@ -18,16 +32,43 @@ import java.util.Map;
 public class ParticipantController {
     
     private final ParticipantService participantService;
+    private final RegistrationWaitingRoom registrationWaitingRoom;
+    private final AttendeeExportService attendeeExportService;
     private final JwtTokenProvider tokenProvider;
     
+    /**
+     * Queues the registration in the {@link RegistrationWaitingRoom}. The request thread is
+     * released while waiting; the usual result is returned if the registration is done within
+     * the waiting room's max wait, otherwise 202 with a ticket to poll.
+     */
     @PostMapping("/attendance")
-    public ResponseEntity<Map<String, String>> registerAttendance(
+    public DeferredResult<ResponseEntity<?>> registerAttendance(
             @PathVariable Long eventId,
             HttpServletRequest request
     ) {
         Long userId = getUserIdFromRequest(request);
-        participantService.registerAttendance(userId, eventId);
-        return ResponseEntity.ok(Map.of("message", "Attendance registered successfully"));
+        RegistrationWaitingRoom.Ticket ticket = registrationWaitingRoom.submit(userId, eventId);
+        
+        DeferredResult<ResponseEntity<?>> response = new DeferredResult<>(
+                registrationWaitingRoom.getMaxWait().toMillis(), () -> queuedResponse(eventId, ticket));
+        ticket.getResult().whenComplete((waitlistPosition, ex) -> {
+            if (ex != null) {
+                response.setErrorResult(ex);
+            } else {
+                response.setResult(registeredResponse(waitlistPosition));
+            }
+        });
+        return response;
+    }
+    
+    @GetMapping("/attendance/tickets/{ticketId}")
+    public ResponseEntity<RegistrationTicketResponse> getRegistrationTicket(
+            @PathVariable Long eventId,
+            @PathVariable String ticketId,
+            HttpServletRequest request
+    ) {
+        Long userId = getUserIdFromRequest(request);
+        return ResponseEntity.ok(registrationWaitingRoom.getTicket(ticketId, eventId, userId));
     }
     
     @PutMapping("/attendance")
@@ -51,6 +92,72 @@ public class ParticipantController {
         return ResponseEntity.ok(Map.of("message", "Attendance cancelled successfully"));
     }
     
+    // The attendee's QR code for the door
+    @GetMapping("/attendance/check-in-token")
+    public ResponseEntity<Map<String, String>> getCheckInToken(
+            @PathVariable Long eventId,
+            HttpServletRequest request
+    ) {
+        Long userId = getUserIdFromRequest(request);
+        return ResponseEntity.ok(Map.of("token", participantService.getCheckInToken(userId, eventId)));
+    }
+    
+    // Organizer only: applies a batch of door scans, see ParticipantService.checkIn
+    @PostMapping("/check-ins")
+    public ResponseEntity<CheckInResponse> checkIn(
+            @PathVariable Long eventId,
+            @Valid @RequestBody CheckInRequest checkInRequest,
+            HttpServletRequest request
+    ) {
+        Long userId = getUserIdFromRequest(request);
+        return ResponseEntity.ok(participantService.checkIn(userId, eventId, checkInRequest));
+    }
+    
+    /**
+     * Organizer only: the attendee list as {@code csv} (default) or {@code ndjson}, streamed
+     * while it is read from the database.
+     */
+    @GetMapping("/attendees/export")
+    public ResponseEntity<StreamingResponseBody> exportAttendees(
+            @PathVariable Long eventId,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletRequest request
+    ) {
+        Long userId = getUserIdFromRequest(request);
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        if (!ndjson && !"csv".equalsIgnoreCase(format)) {
+            throw new BadRequestException("Export format must be csv or ndjson");
+        }
+        attendeeExportService.checkOrganizer(userId, eventId);
+        
+        StreamingResponseBody body = ndjson
+                ? output -> attendeeExportService.writeNdjson(eventId, output)
+                : output -> attendeeExportService.writeCsv(eventId, output);
+        return ResponseEntity.ok()
+                .contentType(ndjson
+                        ? MediaType.parseMediaType("application/x-ndjson")
+                        : MediaType.parseMediaType("text/csv;charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("event-" + eventId + "-attendees." + (ndjson ? "ndjson" : "csv"))
+                        .build().toString())
+                .body(body);
+    }
+    
+    private ResponseEntity<?> registeredResponse(Long waitlistPosition) {
+        if (waitlistPosition != null) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                    "message", "Event is full, added to the waitlist",
+                    "waitlistPosition", waitlistPosition.toString()));
+        }
+        return ResponseEntity.ok(Map.of("message", "Attendance registered successfully"));
+    }
+    
+    private ResponseEntity<?> queuedResponse(Long eventId, RegistrationWaitingRoom.Ticket ticket) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .location(URI.create("/api/events/" + eventId + "/attendance/tickets/" + ticket.getId()))
+                .body(registrationWaitingRoom.toResponse(ticket));
+    }
+    
     private Long getUserIdFromRequest(HttpServletRequest request) {
         String jwt = getJwtFromRequest(request);
         if (jwt != null) {
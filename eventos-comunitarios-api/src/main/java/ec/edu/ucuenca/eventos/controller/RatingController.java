@@ -2,6 +2,7 @@ package ec.edu.ucuenca.eventos.controller;
 
 import ec.edu.ucuenca.eventos.dto.RatingRequest;
 import ec.edu.ucuenca.eventos.dto.RatingResponse;
+import ec.edu.ucuenca.eventos.dto.RatingSummaryResponse;
 import ec.edu.ucuenca.eventos.security.JwtTokenProvider;
 import ec.edu.ucuenca.eventos.service.RatingService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -56,6 +57,12 @@ public class RatingController {
         return ResponseEntity.ok(Map.of("averageRating", average));
     }
     
+    @GetMapping("/summary")
+    public ResponseEntity<RatingSummaryResponse> getRatingSummary(@PathVariable Long eventId) {
+        RatingSummaryResponse summary = ratingService.getRatingSummary(eventId);
+        return ResponseEntity.ok(summary);
+    }
+    
     private Long getUserIdFromRequest(HttpServletRequest request) {
         String jwt = getJwtFromRequest(request);
         if (jwt != null) {
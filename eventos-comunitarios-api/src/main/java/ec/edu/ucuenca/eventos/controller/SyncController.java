@@ -0,0 +1,53 @@
+package ec.edu.ucuenca.eventos.controller;
+
+import ec.edu.ucuenca.eventos.dto.MutationBatchRequest;
+import ec.edu.ucuenca.eventos.dto.MutationBatchResponse;
+import ec.edu.ucuenca.eventos.security.JwtTokenProvider;
+import ec.edu.ucuenca.eventos.service.MutationBatchService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*")
+public class SyncController {
+    
+    private final MutationBatchService mutationBatchService;
+    private final JwtTokenProvider tokenProvider;
+    
+    /**
+     * Applies the changes the app queued while offline, in one request and one
+     * transaction. Always answers 200 for a valid batch; each operation has its own
+     * result with the status its single-operation endpoint would have given.
+     */
+    @PostMapping("/mutations")
+    public ResponseEntity<MutationBatchResponse> applyMutations(
+            @Valid @RequestBody MutationBatchRequest batchRequest,
+            HttpServletRequest request
+    ) {
+        Long userId = getUserIdFromRequest(request);
+        MutationBatchResponse response = mutationBatchService.apply(userId, batchRequest);
+        return ResponseEntity.ok(response);
+    }
+    
+    private Long getUserIdFromRequest(HttpServletRequest request) {
+        String jwt = getJwtFromRequest(request);
+        if (jwt != null) {
+            return tokenProvider.getUserIdFromToken(jwt);
+        }
+        throw new RuntimeException("User ID not found in request");
+    }
+    
+    private String getJwtFromRequest(HttpServletRequest request) {
+        String bearerToken = request.getHeader("Authorization");
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+        return null;
+    }
+}
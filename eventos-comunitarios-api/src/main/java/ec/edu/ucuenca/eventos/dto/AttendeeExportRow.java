@@ -0,0 +1,21 @@
+package ec.edu.ucuenca.eventos.dto;
+
+import ec.edu.ucuenca.eventos.model.AttendanceStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One line of the attendee export, selected directly so no entity is loaded
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendeeExportRow {
+    
+    private Long userId;
+    private String name;
+    private String email;
+    private AttendanceStatus attendanceStatus;
+    private LocalDateTime registrationDate;
+}
@@ -0,0 +1,29 @@
+package ec.edu.ucuenca.eventos.dto;
+
+import ec.edu.ucuenca.eventos.model.AttendanceStatus;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of scans from a door device: user ids typed in or picked from the list,
+ * and the check-in tokens read from the attendees' QR codes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckInRequest {
+    
+    @Size(max = 1000, message = "At most 1000 user IDs per batch")
+    private List<Long> userIds = new ArrayList<>();
+    
+    @Size(max = 1000, message = "At most 1000 tokens per batch")
+    private List<String> tokens = new ArrayList<>();
+    
+    // ATTENDED or NOT_ATTENDED
+    private AttendanceStatus status = AttendanceStatus.ATTENDED;
+}
@@ -0,0 +1,42 @@
+package ec.edu.ucuenca.eventos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CheckInResponse {
+    
+    public enum Result {
+        UPDATED,
+        // Already had the requested status, e.g. scanned twice
+        UNCHANGED,
+        NOT_REGISTERED,
+        CANCELLED,
+        INVALID_TOKEN
+    }
+    
+    // One per scan, user ids first and then tokens, each in request order
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Item {
+        private Long userId;
+        private String token;
+        private Result result;
+    }
+    
+    private int updated;
+    private int unchanged;
+    private int rejected;
+    private List<Item> results;
+}
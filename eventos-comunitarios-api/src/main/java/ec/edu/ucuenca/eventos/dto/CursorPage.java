@@ -0,0 +1,20 @@
+package ec.edu.ucuenca.eventos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPage<T> {
+    private List<T> items;
+    private Integer limit;
+    
+    // Opaque cursor for the next page, null when there are no more items
+    private String nextCursor;
+}
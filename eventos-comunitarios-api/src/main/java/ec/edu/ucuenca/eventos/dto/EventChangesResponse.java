@@ -0,0 +1,26 @@
+package ec.edu.ucuenca.eventos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventChangesResponse {
+    // Public, published events created or changed since the watermark
+    private List<EventResponse> events;
+    
+    // Events the client should drop: deleted, cancelled, archived, made private or never published
+    private List<Long> removedEventIds;
+    
+    // Opaque token to pass as since on the next call
+    private String watermark;
+    
+    // True when more changes are waiting, so the client should call again right away
+    private Boolean hasMore;
+}
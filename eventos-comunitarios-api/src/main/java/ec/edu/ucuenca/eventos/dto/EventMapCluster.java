@@ -0,0 +1,24 @@
+package ec.edu.ucuenca.eventos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventMapCluster {
+    private String geohash;
+    private Long count;
+    
+    // Centroid of the events in the cluster
+    private Double latitude;
+    private Double longitude;
+    
+    // A few of its events, soonest first
+    private List<Long> eventIds;
+}
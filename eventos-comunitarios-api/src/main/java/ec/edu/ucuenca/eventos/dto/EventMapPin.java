@@ -0,0 +1,19 @@
+package ec.edu.ucuenca.eventos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventMapPin {
+    private Long id;
+    private String title;
+    private Double latitude;
+    private Double longitude;
+    private Long categoryId;
+    private String categoryName;
+}
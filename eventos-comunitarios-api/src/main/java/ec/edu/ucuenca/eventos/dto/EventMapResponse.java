@@ -0,0 +1,20 @@
+package ec.edu.ucuenca.eventos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventMapResponse {
+    private Integer zoom;
+    
+    // Clusters are returned at low zoom levels, pins at high ones; the other list is empty
+    private List<EventMapCluster> clusters;
+    private List<EventMapPin> pins;
+}
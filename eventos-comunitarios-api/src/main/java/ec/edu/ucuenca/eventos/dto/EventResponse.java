@@ -1,5 +1,7 @@
 package ec.edu.ucuenca.eventos.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import ec.edu.ucuenca.eventos.model.EventStatus;
 import ec.edu.ucuenca.eventos.model.EventVisibility;
 import lombok.AllArgsConstructor;
@@ -13,7 +15,7 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class EventResponse {
     private Long id;
     private String title;
@@ -41,8 +43,16 @@ public class EventResponse {
     private Long ratingCount;
     private Long favoriteCount;
     
+    // When a counter last changed, for caches of the serialized response; not sent
+    @JsonIgnore
+    private LocalDateTime countersUpdatedAt;
+    
     // User-specific flags
     private Boolean isOrganizer;
     private Boolean hasUserRegistered;
     private Boolean isFavorite;
+    
+    // Only set by the nearby-events query
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double distanceKm;
 }
@@ -0,0 +1,50 @@
+package ec.edu.ucuenca.eventos.dto;
+
+import ec.edu.ucuenca.eventos.model.EventStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Query parameters of the event search. Every filter is optional and they
+ * can be combined freely.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventSearchRequest {
+    
+    // Text searched in title, location and description
+    private String q;
+    
+    private Long categoryId;
+    private Long organizerId;
+    private EventStatus status;
+    
+    // Range of the event start date
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime startDate;
+    
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime endDate;
+    
+    // Only events that still accept participants
+    private Boolean seatsAvailable;
+    
+    // Bounding box, either all four or none
+    private Double minLat;
+    private Double minLng;
+    private Double maxLat;
+    private Double maxLng;
+    
+    // RELEVANCE by default when there is a text query, START_DATE otherwise
+    private EventSearchSort sort;
+    
+    private String cursor;
+    private Integer limit;
+}
@@ -0,0 +1,13 @@
+package ec.edu.ucuenca.eventos.dto;
+
+/**
+ * Order of event search results.
+ */
+public enum EventSearchSort {
+    // Soonest first
+    START_DATE,
+    // Most recently created first
+    NEWEST,
+    // Best text match first, only with a text query
+    RELEVANCE
+}
@@ -0,0 +1,57 @@
+package ec.edu.ucuenca.eventos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import ec.edu.ucuenca.eventos.model.EventStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * What changed on an event since the previous message of its live stream.
+ * Comments are in the order they happened; counters are only present when
+ * they differ from the last ones sent and carry the current values.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EventStreamUpdate {
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class CommentChange {
+        // CREATED, UPDATED or DELETED
+        private String type;
+        private Long commentId;
+        
+        // Without isOwner, which depends on the subscriber; absent for DELETED
+        private CommentResponse comment;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Counters {
+        private EventStatus status;
+        private Long participantCount;
+        private Long commentCount;
+        private Long favoriteCount;
+        private Long ratingCount;
+        private Double averageRating;
+    }
+    
+    private Long eventId;
+    private List<CommentChange> comments;
+    private Counters counters;
+    
+    // Set on the last message when the event is deleted
+    private Boolean deleted;
+}
@@ -0,0 +1,53 @@
+package ec.edu.ucuenca.eventos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import ec.edu.ucuenca.eventos.model.EventStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// What list views show of an event: no description, organizer or user flags
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventSummary {
+    private Long id;
+    private String title;
+    private Long categoryId;
+    private String categoryName;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private String location;
+    private BigDecimal latitude;
+    private BigDecimal longitude;
+    private String coverImage;
+    private EventStatus status;
+    private LocalDateTime createdAt;
+    
+    // Counters
+    private Long participantCount;
+    private Long commentCount;
+    private Long favoriteCount;
+    private Long ratingCount;
+    private Double averageRating;
+    
+    // Only set by the nearby-events query
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double distanceKm;
+    
+    // Used by the JPQL constructor expression in EventRepository.EVENT_SUMMARY
+    public EventSummary(Long id, String title, Long categoryId, String categoryName,
+                        LocalDateTime startDate, LocalDateTime endDate, String location,
+                        BigDecimal latitude, BigDecimal longitude, String coverImage,
+                        EventStatus status, LocalDateTime createdAt, Long participantCount,
+                        Long commentCount, Long favoriteCount, Long ratingCount, Long ratingSum) {
+        this(id, title, categoryId, categoryName, startDate, endDate, location, latitude, longitude,
+                coverImage, status, createdAt, participantCount, commentCount, favoriteCount, ratingCount,
+                ratingCount != null && ratingCount > 0 ? (double) ratingSum / ratingCount : null, null);
+    }
+}
@@ -0,0 +1,67 @@
+package ec.edu.ucuenca.eventos.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Changes the app queued while offline, applied in the order given. Each operation
+ * carries an id chosen by the client; an operation whose id was already applied is
+ * not applied again, so a batch can be resent after a lost response.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MutationBatchRequest {
+    
+    public enum Type {
+        FAVORITE_ADD,
+        FAVORITE_REMOVE,
+        RATING_SET,
+        RATING_DELETE,
+        COMMENT_CREATE,
+        COMMENT_UPDATE,
+        COMMENT_DELETE,
+        ATTENDANCE_REGISTER,
+        ATTENDANCE_CANCEL
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Operation {
+        
+        @NotBlank(message = "Client operation ID is required")
+        @Pattern(regexp = "[A-Za-z0-9_-]{1,64}", message = "Client operation ID must be 1 to 64 letters, digits, '-' or '_'")
+        private String clientOperationId;
+        
+        @NotNull(message = "Operation type is required")
+        private Type type;
+        
+        // Target of every type except COMMENT_UPDATE and COMMENT_DELETE
+        private Long eventId;
+        
+        // COMMENT_UPDATE and COMMENT_DELETE
+        private Long commentId;
+        
+        // RATING_SET
+        private Integer score;
+        
+        // Comment text for COMMENT_CREATE and COMMENT_UPDATE, optional review for RATING_SET
+        private String content;
+    }
+    
+    @NotEmpty(message = "At least one operation is required")
+    @Size(max = 100, message = "At most 100 operations per batch")
+    @Valid
+    private List<Operation> operations = new ArrayList<>();
+}
@@ -0,0 +1,49 @@
+package ec.edu.ucuenca.eventos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MutationBatchResponse {
+    
+    public enum Status {
+        APPLIED,
+        // Applied by an earlier request with the same operation id
+        REPLAYED,
+        FAILED
+    }
+    
+    // One per operation, in request order
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Result {
+        private String clientOperationId;
+        private Status status;
+        
+        // Id of the created comment or rating
+        private Long resourceId;
+        
+        // Set when ATTENDANCE_REGISTER put the user on the waitlist
+        private Long waitlistPosition;
+        
+        // HTTP status and message the single-operation endpoint would have answered with
+        private Integer errorStatus;
+        private String message;
+    }
+    
+    private int applied;
+    private int replayed;
+    private int failed;
+    private List<Result> results;
+}
@@ -0,0 +1,33 @@
+package ec.edu.ucuenca.eventos.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RatingSummaryResponse {
+    private Long eventId;
+    private Long ratingCount;
+    private Double averageRating;
+    
+    // One entry per score from 1 to 5, zero counts included
+    private List<ScoreBucket> distribution;
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ScoreBucket {
+        private Integer score;
+        private Long count;
+        
+        // Share of the ratings, rounded to one decimal
+        private Double percentage;
+    }
+}
@@ -0,0 +1,38 @@
+package ec.edu.ucuenca.eventos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * State of a queued attendance registration, see RegistrationWaitingRoom.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RegistrationTicketResponse {
+    
+    public enum Status {
+        QUEUED,
+        REGISTERED,
+        WAITLISTED,
+        REJECTED
+    }
+    
+    private String ticketId;
+    private Long eventId;
+    private Status status;
+    
+    // Place in the registration queue while QUEUED
+    private Long queuePosition;
+    
+    // Place on the event waitlist when WAITLISTED
+    private Long waitlistPosition;
+    
+    // Why the registration was REJECTED
+    private String message;
+}
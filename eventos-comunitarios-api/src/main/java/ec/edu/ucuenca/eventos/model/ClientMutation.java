@@ -0,0 +1,41 @@
+package ec.edu.ucuenca.eventos.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Operation id of an applied offline mutation, so a replayed batch does not apply it twice
+@Entity
+@Table(
+    name = "client_mutations",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "client_operation_id"}),
+    indexes = @Index(name = "idx_client_mutations_applied_at", columnList = "applied_at")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClientMutation {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // No foreign key: the rows expire on their own, also for deleted accounts
+    @Column(nullable = false, name = "user_id")
+    private Long userId;
+    
+    @Column(nullable = false, length = 64, name = "client_operation_id")
+    private String clientOperationId;
+    
+    // Id of the comment or rating the operation created, returned again on replay
+    @Column(name = "resource_id")
+    private Long resourceId;
+    
+    @Column(nullable = false, name = "applied_at")
+    private LocalDateTime appliedAt;
+}
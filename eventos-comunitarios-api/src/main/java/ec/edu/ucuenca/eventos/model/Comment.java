@@ -13,7 +13,9 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "comments")
+@Table(name = "comments", indexes = {
+    @Index(name = "idx_comments_event_created", columnList = "event_id, created_at DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,12 +1,16 @@
 package ec.edu.ucuenca.eventos.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import ec.edu.ucuenca.eventos.util.GeoHash;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -16,7 +20,12 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "events")
+@Table(name = "events", indexes = {
+    @Index(name = "idx_events_geohash", columnList = "geohash"),
+    @Index(name = "idx_events_updated_at_id", columnList = "updated_at, id"),
+    @Index(name = "idx_events_counters_updated_at", columnList = "counters_updated_at"),
+    @Index(name = "idx_events_created_at_id", columnList = "created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -59,6 +68,10 @@ public class Event {
     @Column(precision = 11, scale = 8)
     private BigDecimal longitude;
     
+    // Geohash of the coordinates, kept in sync on every save for the nearby-events index
+    @Column(length = 12)
+    private String geohash;
+    
     @Min(value = 1, message = "Max capacity must be at least 1")
     @Column(name = "max_capacity")
     private Integer maxCapacity;
@@ -88,6 +101,66 @@ public class Event {
     @Column(name = "deleted_at")
     private LocalDateTime deletedAt;
     
+    // When a counter last changed. Counter updates leave updatedAt to real edits of the event.
+    @Column(name = "counters_updated_at", insertable = false, updatable = false)
+    private LocalDateTime countersUpdatedAt;
+    
+    // Denormalized counters, only written through the atomic updates in EventRepository.
+    // rating_N_count is the number of ratings with score N.
+    @ColumnDefault("0")
+    @Column(nullable = false, name = "participant_count", insertable = false, updatable = false)
+    @Builder.Default
+    private Long participantCount = 0L;
+    
+    @ColumnDefault("0")
+    @Column(nullable = false, name = "comment_count", insertable = false, updatable = false)
+    @Builder.Default
+    private Long commentCount = 0L;
+    
+    // When a comment of the event was last added, edited or removed, or its author renamed
+    @Column(name = "comments_updated_at", insertable = false, updatable = false)
+    private LocalDateTime commentsUpdatedAt;
+    
+    @ColumnDefault("0")
+    @Column(nullable = false, name = "favorite_count", insertable = false, updatable = false)
+    @Builder.Default
+    private Long favoriteCount = 0L;
+    
+    @ColumnDefault("0")
+    @Column(nullable = false, name = "rating_count", insertable = false, updatable = false)
+    @Builder.Default
+    private Long ratingCount = 0L;
+    
+    @ColumnDefault("0")
+    @Column(nullable = false, name = "rating_sum", insertable = false, updatable = false)
+    @Builder.Default
+    private Long ratingSum = 0L;
+    
+    @ColumnDefault("0")
+    @Column(nullable = false, name = "rating_1_count", insertable = false, updatable = false)
+    @Builder.Default
+    private Long rating1Count = 0L;
+    
+    @ColumnDefault("0")
+    @Column(nullable = false, name = "rating_2_count", insertable = false, updatable = false)
+    @Builder.Default
+    private Long rating2Count = 0L;
+    
+    @ColumnDefault("0")
+    @Column(nullable = false, name = "rating_3_count", insertable = false, updatable = false)
+    @Builder.Default
+    private Long rating3Count = 0L;
+    
+    @ColumnDefault("0")
+    @Column(nullable = false, name = "rating_4_count", insertable = false, updatable = false)
+    @Builder.Default
+    private Long rating4Count = 0L;
+    
+    @ColumnDefault("0")
+    @Column(nullable = false, name = "rating_5_count", insertable = false, updatable = false)
+    @Builder.Default
+    private Long rating5Count = 0L;
+    
     // Relationships
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
@@ -100,21 +173,29 @@ public class Event {
     @OneToMany(mappedBy = "event", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<Participant> participants = new HashSet<>();
     
     @OneToMany(mappedBy = "event", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<Comment> comments = new HashSet<>();
     
     @OneToMany(mappedBy = "event", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<Rating> ratings = new HashSet<>();
     
     @OneToMany(mappedBy = "event", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Set<Favorite> favorites = new HashSet<>();
     
     // Helper methods
@@ -130,7 +211,19 @@ public class Event {
         return status == EventStatus.PUBLISHED;
     }
     
+    public Double getAverageRating() {
+        return ratingCount != null && ratingCount > 0 ? (double) ratingSum / ratingCount : null;
+    }
+    
     public boolean canAcceptAttendance() {
         return status == EventStatus.PUBLISHED && !isDeleted();
     }
+    
+    @PrePersist
+    @PreUpdate
+    public void updateGeohash() {
+        geohash = latitude != null && longitude != null
+                ? GeoHash.encode(latitude.doubleValue(), longitude.doubleValue(), GeoHash.PRECISION)
+                : null;
+    }
 }
@@ -0,0 +1,28 @@
+package ec.edu.ucuenca.eventos.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Id of an event whose row was removed (with its organizer's account), so delta sync can report it
+@Entity
+@Table(name = "event_tombstones", indexes = {
+    @Index(name = "idx_event_tombstones_deleted_at", columnList = "deleted_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EventTombstone {
+    
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+    
+    @Column(nullable = false, name = "deleted_at")
+    private LocalDateTime deletedAt;
+}
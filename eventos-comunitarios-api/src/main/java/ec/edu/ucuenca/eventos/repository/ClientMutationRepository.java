@@ -0,0 +1,54 @@
+package ec.edu.ucuenca.eventos.repository;
+
+import ec.edu.ucuenca.eventos.model.ClientMutation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ClientMutationRepository extends JpaRepository<ClientMutation, Long> {
+    
+    // Records the operation ids (comma separated) of a batch in one statement and returns those
+    // that were new. An id another request is still applying waits for it and is not returned.
+    @Query(value = "WITH claimed AS (" +
+           "INSERT INTO client_mutations (user_id, client_operation_id, applied_at) " +
+           "SELECT :userId, s.id, LOCALTIMESTAMP FROM unnest(string_to_array(:operationIds, ',')) AS s(id) " +
+           "ON CONFLICT (user_id, client_operation_id) DO NOTHING " +
+           "RETURNING client_operation_id) " +
+           "SELECT client_operation_id FROM claimed",
+           nativeQuery = true)
+    List<String> claim(@Param("userId") Long userId, @Param("operationIds") String operationIds);
+    
+    List<ClientMutation> findByUserIdAndClientOperationIdIn(Long userId, Collection<String> clientOperationIds);
+    
+    // Stores what the batch created and forgets the failed operations, so they can be sent
+    // again. Parallel comma separated lists of operation ids and resource ids.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "client_mutations"))
+    @Query(value = "WITH forgotten AS (" +
+           "DELETE FROM client_mutations WHERE user_id = :userId " +
+           "AND client_operation_id = ANY (string_to_array(:failedIds, ','))) " +
+           "UPDATE client_mutations m SET resource_id = CAST(r.resource_id AS integer) " +
+           "FROM unnest(string_to_array(:createdIds, ','), string_to_array(:resourceIds, ',')) AS r(id, resource_id) " +
+           "WHERE m.user_id = :userId AND m.client_operation_id = r.id",
+           nativeQuery = true)
+    int recordOutcomes(
+        @Param("userId") Long userId,
+        @Param("failedIds") String failedIds,
+        @Param("createdIds") String createdIds,
+        @Param("resourceIds") String resourceIds
+    );
+    
+    @Modifying
+    @Query("DELETE FROM ClientMutation m WHERE m.appliedAt < :before")
+    int deleteAppliedBefore(@Param("before") LocalDateTime before);
+}
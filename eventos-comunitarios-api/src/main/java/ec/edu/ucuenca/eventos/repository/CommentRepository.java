@@ -1,9 +1,14 @@
 package ec.edu.ucuenca.eventos.repository;
 
 import ec.edu.ucuenca.eventos.model.Comment;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -13,5 +18,21 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
     
     List<Comment> findByUserIdOrderByCreatedAtDesc(Long userId);
     
+    // Comments older than the (createdAt, id) cursor, newest first, with their authors in the same query
+    @EntityGraph(attributePaths = {"user"})
+    @Query("SELECT c FROM Comment c " +
+           "WHERE c.event.id = :eventId " +
+           "AND (c.createdAt, c.id) < (:beforeCreatedAt, :beforeId) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findPageByEventId(
+        @Param("eventId") Long eventId,
+        @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+        @Param("beforeId") Long beforeId,
+        Limit limit
+    );
+    
+    @Query("SELECT DISTINCT c.event.id FROM Comment c WHERE c.user.id = :userId")
+    List<Long> findEventIdsByUserId(@Param("userId") Long userId);
+    
     Long countByEventId(Long eventId);
 }
@@ -1,61 +1,380 @@
 package ec.edu.ucuenca.eventos.repository;
 
+import ec.edu.ucuenca.eventos.dto.EventSummary;
 import ec.edu.ucuenca.eventos.model.Event;
 import ec.edu.ucuenca.eventos.model.EventStatus;
 import ec.edu.ucuenca.eventos.model.EventVisibility;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface EventRepository extends JpaRepository<Event, Long> {
+public interface EventRepository extends JpaRepository<Event, Long>, EventSearchRepository {
+    
+    // Select item building an EventSummary straight from the columns, for queries
+    // over "Event e LEFT JOIN e.category c". No entity is loaded or dirty-checked.
+    String EVENT_SUMMARY = "new ec.edu.ucuenca.eventos.dto.EventSummary(e.id, e.title, c.id, c.name, " +
+            "e.startDate, e.endDate, e.location, e.latitude, e.longitude, e.coverImage, e.status, e.createdAt, " +
+            "e.participantCount, e.commentCount, e.favoriteCount, e.ratingCount, e.ratingSum)";
     
     // Find all public and published events (not deleted)
+    @EntityGraph(attributePaths = {"category", "organizer"})
     List<Event> findByVisibilityAndStatusAndDeletedAtIsNull(
         EventVisibility visibility, 
         EventStatus status
     );
     
     // Find events by organizer
+    @EntityGraph(attributePaths = {"category", "organizer"})
     List<Event> findByOrganizerIdAndDeletedAtIsNull(Long organizerId);
     
+    // Page of the organizer's events, newest first, before the (createdAt, id) cursor
+    @EntityGraph(attributePaths = {"category", "organizer"})
+    @Query("SELECT e FROM Event e WHERE " +
+           "e.organizer.id = :organizerId " +
+           "AND e.deletedAt IS NULL " +
+           "AND (e.createdAt, e.id) < (:beforeCreatedAt, :beforeId) " +
+           "ORDER BY e.createdAt DESC, e.id DESC")
+    List<Event> findPageByOrganizerId(
+        @Param("organizerId") Long organizerId,
+        @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+        @Param("beforeId") Long beforeId,
+        Limit limit
+    );
+    
+    @Query("SELECT " + EVENT_SUMMARY + " FROM Event e LEFT JOIN e.category c WHERE " +
+           "e.organizer.id = :organizerId " +
+           "AND e.deletedAt IS NULL " +
+           "AND (e.createdAt, e.id) < (:beforeCreatedAt, :beforeId) " +
+           "ORDER BY e.createdAt DESC, e.id DESC")
+    List<EventSummary> findSummaryPageByOrganizerId(
+        @Param("organizerId") Long organizerId,
+        @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+        @Param("beforeId") Long beforeId,
+        Limit limit
+    );
+    
     // Find event by id (not deleted)
     Optional<Event> findByIdAndDeletedAtIsNull(Long id);
     
-    // Search events by title (case-insensitive)
-    @Query("SELECT e FROM Event e WHERE " +
-           "LOWER(e.title) LIKE LOWER(CONCAT('%', :query, '%')) " +
-           "AND e.visibility = :visibility " +
+    // What decides who may see the event: one row of [visibility, status, organizerId],
+    // none when the event is deleted
+    @Query("SELECT e.visibility, e.status, e.organizer.id FROM Event e " +
+           "WHERE e.id = :id AND e.deletedAt IS NULL")
+    List<Object[]> findAccessById(@Param("id") Long id);
+    
+    // Live counters of the events. Rows of [id, status, participantCount, commentCount,
+    // favoriteCount, ratingCount, ratingSum, deletedAt].
+    @Query("SELECT e.id, e.status, e.participantCount, e.commentCount, e.favoriteCount, " +
+           "e.ratingCount, e.ratingSum, e.deletedAt " +
+           "FROM Event e WHERE e.id IN :ids")
+    List<Object[]> findCountersByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Load events with their category and organizer, in no particular order
+    @EntityGraph(attributePaths = {"category", "organizer"})
+    List<Event> findByIdIn(Collection<Long> ids);
+    
+    @Query("SELECT " + EVENT_SUMMARY + " FROM Event e LEFT JOIN e.category c WHERE e.id IN :ids")
+    List<EventSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Events within radiusKm of the point, nearest first. Rows of [eventId, distanceKm].
+    // The geohash prefixes of the surrounding cells limit the scan to idx_events_geohash ranges.
+    @Query(value = "SELECT e.id, d.distance FROM events e " +
+           "JOIN unnest(string_to_array(:cells, ',')) AS c(prefix) " +
+           "ON e.geohash BETWEEN c.prefix AND c.prefix || 'zzzzzzzzzzzz' " +
+           "CROSS JOIN LATERAL (SELECT 6371.0 * 2 * asin(least(1.0, sqrt(" +
+           "power(sin(radians(e.latitude - :lat) / 2), 2) + " +
+           "cos(radians(:lat)) * cos(radians(e.latitude)) * power(sin(radians(e.longitude - :lng) / 2), 2)" +
+           "))) AS distance) d " +
+           "WHERE e.visibility = :visibility " +
            "AND e.status = :status " +
-           "AND e.deletedAt IS NULL")
-    List<Event> searchByTitle(
-        @Param("query") String query,
-        @Param("visibility") EventVisibility visibility,
-        @Param("status") EventStatus status
+           "AND e.deleted_at IS NULL " +
+           "AND d.distance <= :radiusKm " +
+           "ORDER BY d.distance, e.id " +
+           "LIMIT :limit",
+           nativeQuery = true)
+    List<Object[]> findNearby(
+        @Param("cells") String cells,
+        @Param("lat") double lat,
+        @Param("lng") double lng,
+        @Param("radiusKm") double radiusKm,
+        @Param("visibility") String visibility,
+        @Param("status") String status,
+        @Param("limit") int limit
     );
     
-    // Search events by title and category
-    @Query("SELECT e FROM Event e WHERE " +
-           "LOWER(e.title) LIKE LOWER(CONCAT('%', :query, '%')) " +
-           "AND e.category.id = :categoryId " +
-           "AND e.visibility = :visibility " +
+    // Events inside the bounding box grouped by geohash cell of the given precision. Rows of
+    // [cell, eventCount, centroidLat, centroidLng, ids of up to three events by start date].
+    @Query(value = "SELECT left(e.geohash, :precision) AS cell, COUNT(*) AS total, " +
+           "CAST(AVG(e.latitude) AS double precision), CAST(AVG(e.longitude) AS double precision), " +
+           "array_to_string((array_agg(e.id ORDER BY e.start_date, e.id))[1:3], ',') " +
+           "FROM events e " +
+           "JOIN unnest(string_to_array(:cells, ',')) AS c(prefix) " +
+           "ON e.geohash BETWEEN c.prefix AND c.prefix || 'zzzzzzzzzzzz' " +
+           "WHERE e.visibility = :visibility " +
            "AND e.status = :status " +
-           "AND e.deletedAt IS NULL")
-    List<Event> searchByTitleAndCategory(
-        @Param("query") String query,
-        @Param("categoryId") Long categoryId,
-        @Param("visibility") EventVisibility visibility,
-        @Param("status") EventStatus status
-    );
-    
-    // Find by category
-    List<Event> findByCategoryIdAndVisibilityAndStatusAndDeletedAtIsNull(
-        Long categoryId,
-        EventVisibility visibility,
-        EventStatus status
+           "AND e.deleted_at IS NULL " +
+           "AND e.latitude BETWEEN :minLat AND :maxLat " +
+           "AND e.longitude BETWEEN :minLng AND :maxLng " +
+           "GROUP BY cell " +
+           "ORDER BY total DESC, cell",
+           nativeQuery = true)
+    List<Object[]> findMapClusters(
+        @Param("cells") String cells,
+        @Param("minLat") double minLat,
+        @Param("minLng") double minLng,
+        @Param("maxLat") double maxLat,
+        @Param("maxLng") double maxLng,
+        @Param("precision") int precision,
+        @Param("visibility") String visibility,
+        @Param("status") String status
+    );
+    
+    // Events inside the bounding box, soonest first.
+    // Rows of [eventId, title, latitude, longitude, categoryId, categoryName].
+    @Query(value = "SELECT e.id, e.title, e.latitude, e.longitude, cat.id AS category_id, cat.name " +
+           "FROM events e " +
+           "JOIN unnest(string_to_array(:cells, ',')) AS c(prefix) " +
+           "ON e.geohash BETWEEN c.prefix AND c.prefix || 'zzzzzzzzzzzz' " +
+           "LEFT JOIN categories cat ON cat.id = e.category_id " +
+           "WHERE e.visibility = :visibility " +
+           "AND e.status = :status " +
+           "AND e.deleted_at IS NULL " +
+           "AND e.latitude BETWEEN :minLat AND :maxLat " +
+           "AND e.longitude BETWEEN :minLng AND :maxLng " +
+           "ORDER BY e.start_date, e.id " +
+           "LIMIT :limit",
+           nativeQuery = true)
+    List<Object[]> findMapPins(
+        @Param("cells") String cells,
+        @Param("minLat") double minLat,
+        @Param("minLng") double minLng,
+        @Param("maxLat") double maxLat,
+        @Param("maxLng") double maxLng,
+        @Param("visibility") String visibility,
+        @Param("status") String status,
+        @Param("limit") int limit
+    );
+    
+    // Events with coordinates saved before the geohash column existed
+    List<Event> findByGeohashIsNullAndLatitudeIsNotNullAndLongitudeIsNotNull();
+    
+    // Set the geohash without touching updatedAt
+    @Modifying
+    @Query("UPDATE Event e SET e.geohash = :geohash WHERE e.id = :eventId")
+    int updateGeohash(@Param("eventId") Long eventId, @Param("geohash") String geohash);
+    
+    // Events the user is registered for, excluding the ones they organize, paginated by (startDate, id)
+    @Query("SELECT e FROM Participant p JOIN p.event e " +
+           "LEFT JOIN FETCH e.category LEFT JOIN FETCH e.organizer " +
+           "WHERE p.user.id = :userId " +
+           "AND e.organizer.id <> :userId " +
+           "AND e.deletedAt IS NULL " +
+           "AND (e.startDate, e.id) > (:afterStartDate, :afterId) " +
+           "ORDER BY e.startDate, e.id")
+    List<Event> findAttendingEventsByUserId(
+        @Param("userId") Long userId,
+        @Param("afterStartDate") LocalDateTime afterStartDate,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+    
+    // Events changed after the (updatedAt, id) watermark, including deleted ones, oldest change first
+    @EntityGraph(attributePaths = {"category", "organizer"})
+    @Query("SELECT e FROM Event e WHERE (e.updatedAt, e.id) > (:afterUpdatedAt, :afterId) " +
+           "ORDER BY e.updatedAt, e.id")
+    List<Event> findChangedAfter(
+        @Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+        @Param("afterId") Long afterId,
+        Limit limit
     );
+    
+    // Events edited or with counters changed after the given time, deleted ones included.
+    // Rows of [id, updatedAt, countersUpdatedAt].
+    @Query("SELECT e.id, e.updatedAt, e.countersUpdatedAt FROM Event e " +
+           "WHERE e.updatedAt > :after OR e.countersUpdatedAt > :after")
+    List<Object[]> findVersionsChangedAfter(@Param("after") LocalDateTime after);
+    
+    // Ids of every event of the organizer, deleted ones included
+    @Query("SELECT e.id FROM Event e WHERE e.organizer.id = :organizerId")
+    List<Long> findIdsByOrganizerId(@Param("organizerId") Long organizerId);
+    
+    // Moves updatedAt on every event of the organizer, for changes to what they show of the
+    // organizer (the name), so validators, cached JSON and delta sync all see a new version
+    @Modifying
+    @Query("UPDATE Event e SET e.updatedAt = LOCAL DATETIME WHERE e.organizer.id = :organizerId")
+    int touchByOrganizerId(@Param("organizerId") Long organizerId);
+    
+    @Query("SELECT " + EVENT_SUMMARY + " FROM Participant p JOIN p.event e LEFT JOIN e.category c " +
+           "WHERE p.user.id = :userId " +
+           "AND e.organizer.id <> :userId " +
+           "AND e.deletedAt IS NULL " +
+           "AND (e.startDate, e.id) > (:afterStartDate, :afterId) " +
+           "ORDER BY e.startDate, e.id")
+    List<EventSummary> findAttendingSummariesByUserId(
+        @Param("userId") Long userId,
+        @Param("afterStartDate") LocalDateTime afterStartDate,
+        @Param("afterId") Long afterId,
+        Limit limit
+    );
+    
+    // What an event response is built from, for conditional GETs.
+    // Rows of [updatedAt, participantCount, commentCount, favoriteCount, ratingCount, ratingSum,
+    // countersUpdatedAt].
+    @Query("SELECT e.updatedAt, e.participantCount, e.commentCount, e.favoriteCount, e.ratingCount, e.ratingSum, " +
+           "e.countersUpdatedAt " +
+           "FROM Event e WHERE e.id = :eventId AND e.deletedAt IS NULL")
+    List<Object[]> findVersionById(@Param("eventId") Long eventId);
+    
+    // What the event's comment list is built from, for conditional GETs: a primary key lookup,
+    // whatever the size of the thread. Rows of [commentCount, commentsUpdatedAt, updatedAt].
+    @Query("SELECT e.commentCount, e.commentsUpdatedAt, e.updatedAt FROM Event e WHERE e.id = :eventId")
+    List<Object[]> findCommentsVersionById(@Param("eventId") Long eventId);
+    
+    // Events the user is registered for ('R') or has marked as favorite ('F'), in one round trip.
+    // Rows of [eventId, kind].
+    @Query(value = "SELECT p.event_id, 'R' FROM participants p WHERE p.user_id = :userId " +
+           "UNION ALL SELECT f.event_id, 'F' FROM favorites f WHERE f.user_id = :userId",
+           nativeQuery = true)
+    List<Object[]> findMembershipsByUserId(@Param("userId") Long userId);
+    
+    // Atomic counter updates, so concurrent writers never lose an increment. They move
+    // countersUpdatedAt and leave updatedAt to edits of the event itself.
+    @Modifying
+    @Query("UPDATE Event e SET e.participantCount = e.participantCount + :delta, " +
+           "e.countersUpdatedAt = LOCAL DATETIME WHERE e.id = :eventId")
+    int adjustParticipantCount(@Param("eventId") Long eventId, @Param("delta") long delta);
+    
+    // Takes a seat if the event has one left, in a single statement: concurrent registrations
+    // queue on the row lock and re-check the capacity against the count left by the previous
+    // one. Returns 0 when the event is full.
+    @Modifying
+    @Query("UPDATE Event e SET e.participantCount = e.participantCount + 1, " +
+           "e.countersUpdatedAt = LOCAL DATETIME WHERE e.id = :eventId " +
+           "AND (e.maxCapacity IS NULL OR e.participantCount < e.maxCapacity)")
+    int reserveSeat(@Param("eventId") Long eventId);
+    
+    // Locks the event row until commit. A reserveSeat that finds the event full takes no lock,
+    // so callers that go on to queue the user take it explicitly.
+    @Query(value = "SELECT id FROM events WHERE id = :eventId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("eventId") Long eventId);
+    
+    @Modifying
+    @Query("UPDATE Event e SET e.commentCount = e.commentCount + :delta, " +
+           "e.commentsUpdatedAt = LOCAL DATETIME, e.countersUpdatedAt = LOCAL DATETIME WHERE e.id = :eventId")
+    int adjustCommentCount(@Param("eventId") Long eventId, @Param("delta") long delta);
+    
+    // For comment changes that leave the count alone: an edit, or an author changing their name
+    @Modifying
+    @Query("UPDATE Event e SET e.commentsUpdatedAt = LOCAL DATETIME WHERE e.id IN :eventIds")
+    int touchComments(@Param("eventIds") Collection<Long> eventIds);
+    
+    @Modifying
+    @Query("UPDATE Event e SET e.favoriteCount = e.favoriteCount + :delta, " +
+           "e.countersUpdatedAt = LOCAL DATETIME WHERE e.id = :eventId")
+    int adjustFavoriteCount(@Param("eventId") Long eventId, @Param("delta") long delta);
+    
+    // Rating aggregate of the event, a single row read.
+    // Rows of [ratingCount, ratingSum, rating1Count, rating2Count, rating3Count, rating4Count, rating5Count].
+    @Query("SELECT e.ratingCount, e.ratingSum, e.rating1Count, e.rating2Count, e.rating3Count, " +
+           "e.rating4Count, e.rating5Count FROM Event e WHERE e.id = :eventId AND e.deletedAt IS NULL")
+    List<Object[]> findRatingStatsById(@Param("eventId") Long eventId);
+    
+    // Events the user has registered for, commented, rated or marked as favorite
+    @Query(value = "SELECT event_id FROM participants WHERE user_id = :userId " +
+           "UNION SELECT event_id FROM comments WHERE user_id = :userId " +
+           "UNION SELECT event_id FROM favorites WHERE user_id = :userId " +
+           "UNION SELECT event_id FROM ratings WHERE user_id = :userId",
+           nativeQuery = true)
+    List<Long> findEventIdsWithActivityByUserId(@Param("userId") Long userId);
+    
+    // Recent engagement with the events still worth ranking: public, published and not over.
+    // Each registration, favorite, rating and comment since :since counts exp((at - :base) / :meanLifeSeconds).
+    // Rows of [eventId, categoryId, kind, decayedCount], the kinds being EventEngagement.Type names.
+    @Query(value = "SELECT e.id, e.category_id, s.kind, " +
+           "SUM(exp(extract(epoch FROM s.at - CAST(:base AS timestamp)) / :meanLifeSeconds)) " +
+           "FROM (SELECT event_id, 'REGISTRATION' AS kind, registration_date AS at FROM participants " +
+           "WHERE attendance_status <> 'CANCELLED' AND registration_date >= :since " +
+           "UNION ALL SELECT event_id, 'FAVORITE', created_at FROM favorites WHERE created_at >= :since " +
+           "UNION ALL SELECT event_id, 'RATING', created_at FROM ratings WHERE created_at >= :since " +
+           "UNION ALL SELECT event_id, 'COMMENT', created_at FROM comments WHERE created_at >= :since) s " +
+           "JOIN events e ON e.id = s.event_id " +
+           "WHERE e.visibility = :visibility " +
+           "AND e.status = :status " +
+           "AND e.deleted_at IS NULL " +
+           "AND e.end_date > :base " +
+           "GROUP BY e.id, e.category_id, s.kind",
+           nativeQuery = true)
+    List<Object[]> findTrendingSignals(
+        @Param("since") LocalDateTime since,
+        @Param("base") LocalDateTime base,
+        @Param("meanLifeSeconds") double meanLifeSeconds,
+        @Param("visibility") String visibility,
+        @Param("status") String status
+    );
+    
+    // Events edited or with counters changed since the given time whose stored counters no longer
+    // match the participant, comment, favorite and rating rows, rating histogram included. Only
+    // the rows of those events are counted, through the event_id indexes.
+    // Cancelled registrations do not hold a seat and are not counted as participants.
+    @Query(value = "SELECT e.id FROM events e " +
+           "CROSS JOIN LATERAL (SELECT COUNT(*) AS total, COALESCE(SUM(score), 0) AS score_sum, " +
+           "COUNT(*) FILTER (WHERE score = 1) AS score_1, COUNT(*) FILTER (WHERE score = 2) AS score_2, " +
+           "COUNT(*) FILTER (WHERE score = 3) AS score_3, COUNT(*) FILTER (WHERE score = 4) AS score_4, " +
+           "COUNT(*) FILTER (WHERE score = 5) AS score_5 FROM ratings WHERE event_id = e.id) r " +
+           "WHERE (e.counters_updated_at >= :since OR e.updated_at >= :since) " +
+           "AND (e.participant_count <> (SELECT COUNT(*) FROM participants p " +
+           "WHERE p.event_id = e.id AND p.attendance_status <> 'CANCELLED') " +
+           "OR e.comment_count <> (SELECT COUNT(*) FROM comments c WHERE c.event_id = e.id) " +
+           "OR e.favorite_count <> (SELECT COUNT(*) FROM favorites f WHERE f.event_id = e.id) " +
+           "OR e.rating_count <> r.total " +
+           "OR e.rating_sum <> r.score_sum " +
+           "OR e.rating_1_count <> r.score_1 " +
+           "OR e.rating_2_count <> r.score_2 " +
+           "OR e.rating_3_count <> r.score_3 " +
+           "OR e.rating_4_count <> r.score_4 " +
+           "OR e.rating_5_count <> r.score_5)",
+           nativeQuery = true)
+    List<Long> findEventIdsWithCounterDrift(@Param("since") LocalDateTime since);
+    
+    // Locks the event rows until commit, in id order. A recount run after it (in a later
+    // statement, so with a newer snapshot) sees every adjust that got the lock before it,
+    // and the ones still waiting apply their increment on top of the recount.
+    @Query(value = "SELECT id FROM events WHERE id IN (:eventIds) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockByIdIn(@Param("eventIds") Collection<Long> eventIds);
+    
+    // Recompute the stored counters of the given events from the source tables; lock the rows
+    // first with lockByIdIn. The native space hint keeps Hibernate from dropping every
+    // second-level cache region after it.
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "events"))
+    @Query(value = "UPDATE events e SET " +
+           "participant_count = (SELECT COUNT(*) FROM participants p " +
+           "WHERE p.event_id = e.id AND p.attendance_status <> 'CANCELLED'), " +
+           "comment_count = (SELECT COUNT(*) FROM comments c WHERE c.event_id = e.id), " +
+           "favorite_count = (SELECT COUNT(*) FROM favorites f WHERE f.event_id = e.id), " +
+           "rating_count = (SELECT COUNT(*) FROM ratings r WHERE r.event_id = e.id), " +
+           "rating_sum = (SELECT COALESCE(SUM(r.score), 0) FROM ratings r WHERE r.event_id = e.id), " +
+           "rating_1_count = (SELECT COUNT(*) FROM ratings r WHERE r.event_id = e.id AND r.score = 1), " +
+           "rating_2_count = (SELECT COUNT(*) FROM ratings r WHERE r.event_id = e.id AND r.score = 2), " +
+           "rating_3_count = (SELECT COUNT(*) FROM ratings r WHERE r.event_id = e.id AND r.score = 3), " +
+           "rating_4_count = (SELECT COUNT(*) FROM ratings r WHERE r.event_id = e.id AND r.score = 4), " +
+           "rating_5_count = (SELECT COUNT(*) FROM ratings r WHERE r.event_id = e.id AND r.score = 5), " +
+           "comments_updated_at = LOCALTIMESTAMP, " +
+           "counters_updated_at = LOCALTIMESTAMP " +
+           "WHERE e.id IN (:eventIds)",
+           nativeQuery = true)
+    int recountCounters(@Param("eventIds") Collection<Long> eventIds);
 }
@@ -0,0 +1,27 @@
+package ec.edu.ucuenca.eventos.repository;
+
+import ec.edu.ucuenca.eventos.dto.EventSearchSort;
+import ec.edu.ucuenca.eventos.model.Event;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Event search built from {@link EventSpecifications} filters: one criteria
+ * query with the filters, the sort order and the keyset position, whatever
+ * combination of filters is used.
+ */
+public interface EventSearchRepository {
+    
+    /**
+     * Rows of [event, sort key] matching the filter, in the sort order after the
+     * (sort key, id) position, with category and organizer fetched. The sort key is
+     * the start date, the creation date or the text rank, depending on the sort.
+     */
+    List<Object[]> search(Specification<Event> filter, EventSearchSort sort, String text,
+                          Comparable<?> afterKey, Long afterId, int limit);
+    
+    // Same rows with an EventSummary built from the columns instead of the event entity
+    List<Object[]> searchSummaries(Specification<Event> filter, EventSearchSort sort, String text,
+                                   Comparable<?> afterKey, Long afterId, int limit);
+}
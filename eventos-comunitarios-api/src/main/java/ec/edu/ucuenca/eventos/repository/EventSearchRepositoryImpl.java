@@ -0,0 +1,88 @@
+package ec.edu.ucuenca.eventos.repository;
+
+import ec.edu.ucuenca.eventos.dto.EventSearchSort;
+import ec.edu.ucuenca.eventos.dto.EventSummary;
+import ec.edu.ucuenca.eventos.model.Category;
+import ec.edu.ucuenca.eventos.model.Event;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public class EventSearchRepositoryImpl implements EventSearchRepository {
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Override
+    public List<Object[]> search(Specification<Event> filter, EventSearchSort sort, String text,
+                                 Comparable<?> afterKey, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Event> event = query.from(Event.class);
+        event.fetch("category", JoinType.LEFT);
+        event.fetch("organizer", JoinType.LEFT);
+        
+        return page(cb, query, event, event, filter, sort, text, afterKey, afterId, limit);
+    }
+    
+    @Override
+    public List<Object[]> searchSummaries(Specification<Event> filter, EventSearchSort sort, String text,
+                                          Comparable<?> afterKey, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<Event> event = query.from(Event.class);
+        Join<Event, Category> category = event.join("category", JoinType.LEFT);
+        
+        // Same columns as EventRepository.EVENT_SUMMARY
+        Selection<EventSummary> summary = cb.construct(EventSummary.class,
+                event.get("id"), event.get("title"), category.get("id"), category.get("name"),
+                event.get("startDate"), event.get("endDate"), event.get("location"),
+                event.get("latitude"), event.get("longitude"), event.get("coverImage"),
+                event.get("status"), event.get("createdAt"),
+                event.get("participantCount"), event.get("commentCount"), event.get("favoriteCount"),
+                event.get("ratingCount"), event.get("ratingSum"));
+        
+        return page(cb, query, event, summary, filter, sort, text, afterKey, afterId, limit);
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private List<Object[]> page(CriteriaBuilder cb, CriteriaQuery<Object[]> query, Root<Event> event,
+                                Selection<?> item, Specification<Event> filter, EventSearchSort sort,
+                                String text, Comparable afterKey, Long afterId, int limit) {
+        Expression<Comparable> key = switch (sort) {
+            case START_DATE -> event.get("startDate");
+            case NEWEST -> event.get("createdAt");
+            case RELEVANCE -> (Expression) cb.function("text_rank", Float.class,
+                    EventSpecifications.searchVector(event, cb), EventSpecifications.value(cb, text));
+        };
+        boolean descending = sort != EventSearchSort.START_DATE;
+        Path<Long> id = event.get("id");
+        
+        // (key, id) past the cursor, with the key range on its own so it can be an index condition
+        Predicate after = descending
+                ? cb.and(cb.lessThanOrEqualTo(key, afterKey), cb.or(cb.lessThan(key, afterKey), cb.lessThan(id, afterId)))
+                : cb.and(cb.greaterThanOrEqualTo(key, afterKey), cb.or(cb.greaterThan(key, afterKey), cb.greaterThan(id, afterId)));
+        Predicate filters = filter.toPredicate(event, query, cb);
+        
+        query.select(cb.array(item, key))
+                .where(filters != null ? cb.and(filters, after) : after)
+                .orderBy(descending
+                        ? List.of(cb.desc(key), cb.desc(id))
+                        : List.of(cb.asc(key), cb.asc(id)));
+        
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
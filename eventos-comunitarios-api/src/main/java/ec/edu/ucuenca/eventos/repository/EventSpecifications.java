@@ -0,0 +1,121 @@
+package ec.edu.ucuenca.eventos.repository;
+
+import ec.edu.ucuenca.eventos.model.Event;
+import ec.edu.ucuenca.eventos.model.EventStatus;
+import ec.edu.ucuenca.eventos.model.EventVisibility;
+import ec.edu.ucuenca.eventos.util.GeoHash;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Filters of the event search. A filter whose argument is null adds no
+ * condition at all, so combining them never produces the
+ * "parameter IS NULL OR ..." branches that keep Postgres from picking the
+ * index matching the filters actually used.
+ */
+public final class EventSpecifications {
+    
+    // Upper bound on the geohash index ranges scanned for one bounding box
+    private static final int MAX_COVER_CELLS = 32;
+    private static final String CELL_END = "zzzzzzzzzzzz";
+    private static final char LIKE_ESCAPE = '\\';
+    
+    private EventSpecifications() {
+    }
+    
+    public static Specification<Event> visible(EventVisibility visibility, EventStatus status) {
+        return (event, query, cb) -> cb.and(
+                cb.equal(event.get("visibility"), visibility),
+                cb.equal(event.get("status"), status),
+                cb.isNull(event.get("deletedAt")));
+    }
+    
+    // Full-text match (Spanish stemming, accent-insensitive) or partial word of the title.
+    // Wildcards typed by the user are matched literally.
+    public static Specification<Event> matchesText(String text) {
+        return (event, query, cb) -> text == null ? null : cb.or(
+                cb.isTrue(cb.function("text_matches", Boolean.class, searchVector(event, cb), value(cb, text))),
+                cb.like(unaccentLower(cb, event.get("title")),
+                        cb.concat(cb.concat("%", unaccentLower(cb, value(cb, escapeLike(text)))), "%"),
+                        LIKE_ESCAPE));
+    }
+    
+    public static Specification<Event> inCategory(Long categoryId) {
+        return (event, query, cb) -> categoryId == null ? null
+                : cb.equal(event.get("category").get("id"), categoryId);
+    }
+    
+    public static Specification<Event> organizedBy(Long organizerId) {
+        return (event, query, cb) -> organizerId == null ? null
+                : cb.equal(event.get("organizer").get("id"), organizerId);
+    }
+    
+    public static Specification<Event> startsBetween(LocalDateTime fromDate, LocalDateTime toDate) {
+        return (event, query, cb) -> {
+            Path<LocalDateTime> startDate = event.get("startDate");
+            if (fromDate != null && toDate != null) {
+                return cb.between(startDate, fromDate, toDate);
+            }
+            if (fromDate != null) {
+                return cb.greaterThanOrEqualTo(startDate, fromDate);
+            }
+            return toDate != null ? cb.lessThanOrEqualTo(startDate, toDate) : null;
+        };
+    }
+    
+    // Events without a capacity limit or with fewer participants than their capacity
+    public static Specification<Event> withSeatsAvailable(Boolean seatsAvailable) {
+        return (event, query, cb) -> !Boolean.TRUE.equals(seatsAvailable) ? null : cb.or(
+                cb.isNull(event.get("maxCapacity")),
+                cb.lessThan(event.get("participantCount"), event.<Integer>get("maxCapacity")));
+    }
+    
+    /**
+     * Events inside the bounding box. The geohash prefixes of the cells covering
+     * the box limit the scan to idx_events_geohash ranges, the coordinates then
+     * drop the events of those cells that fall outside the box.
+     */
+    public static Specification<Event> withinBounds(Double minLat, Double minLng, Double maxLat, Double maxLng) {
+        return (event, query, cb) -> {
+            if (minLat == null) {
+                return null;
+            }
+            Path<String> geohash = event.get("geohash");
+            List<Predicate> cells = GeoHash.cellsCovering(minLat, minLng, maxLat, maxLng, MAX_COVER_CELLS).stream()
+                    .map(prefix -> cb.between(geohash, prefix, prefix + CELL_END))
+                    .toList();
+            
+            return cb.and(
+                    cb.or(cells.toArray(Predicate[]::new)),
+                    cb.between(event.get("latitude"), BigDecimal.valueOf(minLat), BigDecimal.valueOf(maxLat)),
+                    cb.between(event.get("longitude"), BigDecimal.valueOf(minLng), BigDecimal.valueOf(maxLng)));
+        };
+    }
+    
+    // The generated tsvector column of the event row, see FullTextSearchFunctions
+    static Expression<String> searchVector(Root<Event> event, CriteriaBuilder cb) {
+        return cb.function("search_vector", String.class, event.get("id"));
+    }
+    
+    // Text bound as a parameter: Hibernate renders plain literals in function arguments inline
+    static Expression<String> value(CriteriaBuilder cb, String text) {
+        return ((HibernateCriteriaBuilder) cb).value(text);
+    }
+    
+    private static Expression<String> unaccentLower(CriteriaBuilder cb, Expression<String> text) {
+        return cb.function("unaccent_lower", String.class, text);
+    }
+    
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
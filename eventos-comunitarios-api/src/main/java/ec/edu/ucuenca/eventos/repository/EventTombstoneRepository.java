@@ -0,0 +1,18 @@
+package ec.edu.ucuenca.eventos.repository;
+
+import ec.edu.ucuenca.eventos.model.EventTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EventTombstoneRepository extends JpaRepository<EventTombstone, Long> {
+    
+    // Ids of the events removed in the (from, to] window
+    @Query("SELECT t.eventId FROM EventTombstone t WHERE t.deletedAt > :from AND t.deletedAt <= :to")
+    List<Long> findEventIdsDeletedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+}
@@ -1,11 +1,13 @@
 package ec.edu.ucuenca.eventos.repository;
 
 import ec.edu.ucuenca.eventos.model.Favorite;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,10 +20,57 @@ public interface FavoriteRepository extends JpaRepository<Favorite, Long> {
     
     Boolean existsByEventIdAndUserId(Long eventId, Long userId);
     
-    void deleteByEventIdAndUserId(Long eventId, Long userId);
-    
     Long countByEventId(Long eventId);
     
-    @Query("SELECT f.event FROM Favorite f WHERE f.user.id = :userId ORDER BY f.createdAt DESC")
-    List<ec.edu.ucuenca.eventos.model.Event> findFavoriteEventsByUserId(@Param("userId") Long userId);
+    // Marks the event as favorite and bumps its counter in one statement. A repeated request
+    // hits the unique (event_id, user_id) constraint and changes nothing.
+    // One row of [event found, favorite added], as 0/1 counts.
+    @Query(value = "WITH target AS (" +
+           "SELECT id FROM events WHERE id = :eventId AND deleted_at IS NULL), " +
+           "inserted AS (" +
+           "INSERT INTO favorites (event_id, user_id, created_at) " +
+           "SELECT id, :userId, LOCALTIMESTAMP FROM target " +
+           "ON CONFLICT (event_id, user_id) DO NOTHING RETURNING event_id), " +
+           "counted AS (" +
+           "UPDATE events e SET favorite_count = e.favorite_count + 1, counters_updated_at = LOCALTIMESTAMP " +
+           "FROM inserted i WHERE e.id = i.event_id RETURNING e.id) " +
+           "SELECT (SELECT COUNT(*) FROM target), (SELECT COUNT(*) FROM counted)",
+           nativeQuery = true)
+    List<Object[]> addIfAbsent(@Param("eventId") Long eventId, @Param("userId") Long userId);
+    
+    // Removes the favorite and lowers the counter in one statement. Returns 0 when there was none.
+    @Query(value = "WITH deleted AS (" +
+           "DELETE FROM favorites WHERE event_id = :eventId AND user_id = :userId RETURNING event_id), " +
+           "counted AS (" +
+           "UPDATE events e SET favorite_count = e.favorite_count - 1, counters_updated_at = LOCALTIMESTAMP " +
+           "FROM deleted d WHERE e.id = d.event_id RETURNING e.id) " +
+           "SELECT COUNT(*) FROM counted",
+           nativeQuery = true)
+    long removeIfPresent(@Param("eventId") Long eventId, @Param("userId") Long userId);
+    
+    // Page of the user's favorites, newest first, before the (createdAt, id) cursor
+    @Query("SELECT f FROM Favorite f JOIN FETCH f.event e " +
+           "LEFT JOIN FETCH e.category LEFT JOIN FETCH e.organizer " +
+           "WHERE f.user.id = :userId " +
+           "AND (f.createdAt, f.id) < (:beforeCreatedAt, :beforeId) " +
+           "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Favorite> findPageByUserId(
+        @Param("userId") Long userId,
+        @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+        @Param("beforeId") Long beforeId,
+        Limit limit
+    );
+    
+    // Same page as summaries. Rows of [favorite createdAt, favorite id, EventSummary].
+    @Query("SELECT f.createdAt, f.id, " + EventRepository.EVENT_SUMMARY + " " +
+           "FROM Favorite f JOIN f.event e LEFT JOIN e.category c " +
+           "WHERE f.user.id = :userId " +
+           "AND (f.createdAt, f.id) < (:beforeCreatedAt, :beforeId) " +
+           "ORDER BY f.createdAt DESC, f.id DESC")
+    List<Object[]> findSummaryPageByUserId(
+        @Param("userId") Long userId,
+        @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+        @Param("beforeId") Long beforeId,
+        Limit limit
+    );
 }
@@ -1,11 +1,19 @@
 package ec.edu.ucuenca.eventos.repository;
 
+import ec.edu.ucuenca.eventos.dto.AttendeeExportRow;
 import ec.edu.ucuenca.eventos.model.Participant;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ParticipantRepository extends JpaRepository<Participant, Long> {
@@ -16,7 +24,64 @@ public interface ParticipantRepository extends JpaRepository<Participant, Long>
     
     List<Participant> findByUserId(Long userId);
     
+    /**
+     * Attendees of the event as a forward-only stream. The driver fetches 500 rows at a
+     * time instead of the whole result, and the rows are projections, so the persistence
+     * context does not grow with the event. Must be read inside a transaction and closed.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new ec.edu.ucuenca.eventos.dto.AttendeeExportRow(" +
+           "u.id, u.name, u.email, p.attendanceStatus, p.registrationDate) " +
+           "FROM Participant p JOIN p.user u WHERE p.event.id = :eventId ORDER BY p.id")
+    Stream<AttendeeExportRow> streamAttendees(@Param("eventId") Long eventId);
+    
     Boolean existsByEventIdAndUserId(Long eventId, Long userId);
     
     Long countByEventId(Long eventId);
+    
+    // Registers the user unless already registered. The unique (event_id, user_id) constraint
+    // decides, so two concurrent requests cannot both get in. Returns 0 for a duplicate.
+    @Modifying
+    @Query(value = "INSERT INTO participants (event_id, user_id, attendance_status, registration_date) " +
+           "VALUES (:eventId, :userId, :status, LOCALTIMESTAMP) " +
+           "ON CONFLICT (event_id, user_id) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("eventId") Long eventId, @Param("userId") Long userId, @Param("status") String status);
+    
+    @Modifying
+    @Query("DELETE FROM Participant p WHERE p.event.id = :eventId AND p.user.id = :userId")
+    int deleteByEventIdAndUserId(@Param("eventId") Long eventId, @Param("userId") Long userId);
+    
+    /**
+     * Sets the attendance status of the listed users (comma separated ids) in one statement.
+     * Cancelled registrations and users that already have the status are left alone, so
+     * replaying a batch changes nothing. The rows are locked in id order first, which keeps
+     * overlapping batches from several devices from deadlocking.
+     * <p>
+     * Returns one row per distinct user: user id, status before the update (null when not
+     * registered) and whether this statement changed it.
+     */
+    @Query(value = "WITH scans AS (" +
+           "SELECT DISTINCT CAST(s.user_id AS bigint) AS user_id " +
+           "FROM unnest(string_to_array(:userIds, ',')) AS s(user_id)), " +
+           "targets AS (" +
+           "SELECT p.id FROM participants p JOIN scans s ON s.user_id = p.user_id " +
+           "WHERE p.event_id = :eventId AND p.attendance_status NOT IN ('CANCELLED', :status) " +
+           "ORDER BY p.id FOR UPDATE OF p), " +
+           "updated AS (" +
+           "UPDATE participants p SET attendance_status = :status FROM targets t " +
+           "WHERE p.id = t.id RETURNING p.id) " +
+           "SELECT s.user_id, p.attendance_status, u.id IS NOT NULL " +
+           "FROM scans s " +
+           "LEFT JOIN participants p ON p.event_id = :eventId AND p.user_id = s.user_id " +
+           "LEFT JOIN updated u ON u.id = p.id",
+           nativeQuery = true)
+    List<Object[]> updateAttendanceStatuses(
+            @Param("eventId") Long eventId,
+            @Param("userIds") String userIds,
+            @Param("status") String status
+    );
 }
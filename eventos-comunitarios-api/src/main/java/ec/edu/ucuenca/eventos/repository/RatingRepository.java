@@ -14,12 +14,70 @@ public interface RatingRepository extends JpaRepository<Rating, Long> {
     
     Optional<Rating> findByEventIdAndUserId(Long eventId, Long userId);
     
+    /**
+     * Creates or changes the user's rating and moves the event's rating stats (count, sum
+     * and histogram) in one statement. The current row is read with FOR UPDATE, so the
+     * previous score is the one the stats were built with.
+     * <p>
+     * Returns one row of [rating id, createdAt, previous score, author name] when the event
+     * exists (no row otherwise). The previous score is null for a new rating. The rating id
+     * is null when a concurrent request created the rating after this statement's snapshot;
+     * nothing is changed then and the statement can simply be repeated.
+     */
+    @Query(value = "WITH target AS (" +
+           "SELECT id FROM events WHERE id = :eventId AND deleted_at IS NULL), " +
+           "previous AS (" +
+           "SELECT score FROM ratings WHERE event_id = :eventId AND user_id = :userId FOR UPDATE), " +
+           "upserted AS (" +
+           "INSERT INTO ratings (event_id, user_id, score, comment, created_at) " +
+           "SELECT id, :userId, :score, :comment, LOCALTIMESTAMP FROM target " +
+           "ON CONFLICT (event_id, user_id) DO UPDATE SET score = EXCLUDED.score, comment = EXCLUDED.comment " +
+           "WHERE EXISTS (SELECT 1 FROM previous) " +
+           "RETURNING id, event_id, created_at), " +
+           "counted AS (" +
+           "UPDATE events e SET " +
+           "rating_count = e.rating_count + CASE WHEN p.score IS NULL THEN 1 ELSE 0 END, " +
+           "rating_sum = e.rating_sum + :score - COALESCE(p.score, 0), " +
+           "rating_1_count = e.rating_1_count + CASE WHEN :score = 1 THEN 1 ELSE 0 END - CASE WHEN p.score = 1 THEN 1 ELSE 0 END, " +
+           "rating_2_count = e.rating_2_count + CASE WHEN :score = 2 THEN 1 ELSE 0 END - CASE WHEN p.score = 2 THEN 1 ELSE 0 END, " +
+           "rating_3_count = e.rating_3_count + CASE WHEN :score = 3 THEN 1 ELSE 0 END - CASE WHEN p.score = 3 THEN 1 ELSE 0 END, " +
+           "rating_4_count = e.rating_4_count + CASE WHEN :score = 4 THEN 1 ELSE 0 END - CASE WHEN p.score = 4 THEN 1 ELSE 0 END, " +
+           "rating_5_count = e.rating_5_count + CASE WHEN :score = 5 THEN 1 ELSE 0 END - CASE WHEN p.score = 5 THEN 1 ELSE 0 END, " +
+           "counters_updated_at = LOCALTIMESTAMP " +
+           "FROM upserted u LEFT JOIN previous p ON true WHERE e.id = u.event_id RETURNING e.id) " +
+           "SELECT u.id, u.created_at, p.score, a.name FROM target t " +
+           "LEFT JOIN upserted u ON true LEFT JOIN previous p ON true " +
+           "LEFT JOIN users a ON a.id = :userId",
+           nativeQuery = true)
+    List<Object[]> upsert(
+        @Param("eventId") Long eventId,
+        @Param("userId") Long userId,
+        @Param("score") int score,
+        @Param("comment") String comment
+    );
+    
+    // Deletes the user's rating and takes it out of the event's rating stats in one statement.
+    // Returns the score it had, nothing when there was none.
+    @Query(value = "WITH deleted AS (" +
+           "DELETE FROM ratings WHERE event_id = :eventId AND user_id = :userId RETURNING event_id, score), " +
+           "counted AS (" +
+           "UPDATE events e SET " +
+           "rating_count = e.rating_count - 1, " +
+           "rating_sum = e.rating_sum - d.score, " +
+           "rating_1_count = e.rating_1_count - CASE WHEN d.score = 1 THEN 1 ELSE 0 END, " +
+           "rating_2_count = e.rating_2_count - CASE WHEN d.score = 2 THEN 1 ELSE 0 END, " +
+           "rating_3_count = e.rating_3_count - CASE WHEN d.score = 3 THEN 1 ELSE 0 END, " +
+           "rating_4_count = e.rating_4_count - CASE WHEN d.score = 4 THEN 1 ELSE 0 END, " +
+           "rating_5_count = e.rating_5_count - CASE WHEN d.score = 5 THEN 1 ELSE 0 END, " +
+           "counters_updated_at = LOCALTIMESTAMP " +
+           "FROM deleted d WHERE e.id = d.event_id RETURNING e.id) " +
+           "SELECT score FROM deleted",
+           nativeQuery = true)
+    List<Integer> deleteReturningScore(@Param("eventId") Long eventId, @Param("userId") Long userId);
+    
     List<Rating> findByEventIdOrderByCreatedAtDesc(Long eventId);
     
     Boolean existsByEventIdAndUserId(Long eventId, Long userId);
     
     Long countByEventId(Long eventId);
-    
-    @Query("SELECT AVG(r.score) FROM Rating r WHERE r.event.id = :eventId")
-    Double getAverageRatingByEventId(@Param("eventId") Long eventId);
 }
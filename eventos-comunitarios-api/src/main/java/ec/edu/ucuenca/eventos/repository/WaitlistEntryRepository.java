@@ -0,0 +1,48 @@
+package ec.edu.ucuenca.eventos.repository;
+
+import ec.edu.ucuenca.eventos.model.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface WaitlistEntryRepository extends JpaRepository<WaitlistEntry, Long> {
+    
+    // Puts the user at the end of the queue. Returns 0 when already waiting.
+    @Modifying
+    @Query(value = "INSERT INTO waitlist_entries (event_id, user_id, created_at) " +
+           "VALUES (:eventId, :userId, LOCALTIMESTAMP) " +
+           "ON CONFLICT (event_id, user_id) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("eventId") Long eventId, @Param("userId") Long userId);
+    
+    boolean existsByEventId(Long eventId);
+    
+    @Modifying
+    @Query("DELETE FROM WaitlistEntry w WHERE w.event.id = :eventId AND w.user.id = :userId")
+    int deleteByEventIdAndUserId(@Param("eventId") Long eventId, @Param("userId") Long userId);
+    
+    /**
+     * Removes the head of the queue and returns its user id, if the event has a free seat.
+     * One index lookup on (event_id, id) whatever the queue length. SKIP LOCKED passes over
+     * an entry another node is already removing instead of waiting for it.
+     */
+    @Query(value = "DELETE FROM waitlist_entries WHERE id = (" +
+           "SELECT w.id FROM waitlist_entries w JOIN events e ON e.id = w.event_id " +
+           "WHERE w.event_id = :eventId " +
+           "AND (e.max_capacity IS NULL OR e.participant_count < e.max_capacity) " +
+           "ORDER BY w.id LIMIT 1 " +
+           "FOR UPDATE OF w SKIP LOCKED) " +
+           "RETURNING user_id",
+           nativeQuery = true)
+    Optional<Long> pollNext(@Param("eventId") Long eventId);
+    
+    // Position in the queue, starting at 1. 0 when the user is not waiting.
+    @Query("SELECT COUNT(w) FROM WaitlistEntry w WHERE w.event.id = :eventId AND w.id <= " +
+           "(SELECT m.id FROM WaitlistEntry m WHERE m.event.id = :eventId AND m.user.id = :userId)")
+    long findPosition(@Param("eventId") Long eventId, @Param("userId") Long userId);
+}
@@ -27,6 +27,12 @@ public class JwtTokenProvider {
         return Keys.hmacShaKeyFor(keyBytes);
     }
     
+    // Check-in tokens are signed with a key of their own, so one can never be used to log in
+    private SecretKey getCheckInSigningKey() {
+        byte[] keyBytes = (jwtSecret + ":check-in").getBytes(StandardCharsets.UTF_8);
+        return Keys.hmacShaKeyFor(keyBytes);
+    }
+    
     public String generateToken(Long userId, String email) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
@@ -78,4 +84,36 @@ public class JwtTokenProvider {
         }
         return false;
     }
+    
+    /**
+     * Token an attendee shows as a QR code at the venue. It only checks the user in to
+     * the given event and is verified offline, without a database lookup.
+     */
+    public String generateCheckInToken(Long userId, Long eventId, Date expiryDate) {
+        return Jwts.builder()
+                .subject(userId.toString())
+                .claim("event", eventId)
+                .issuedAt(new Date())
+                .expiration(expiryDate)
+                .signWith(getCheckInSigningKey())
+                .compact();
+    }
+    
+    // User id of a check-in token, null when the token is invalid, expired or for another event
+    public Long getUserIdFromCheckInToken(String token, Long eventId) {
+        try {
+            Claims claims = Jwts.parser()
+                    .verifyWith(getCheckInSigningKey())
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+            Number event = claims.get("event", Number.class);
+            if (event == null || event.longValue() != eventId) {
+                return null;
+            }
+            return Long.parseLong(claims.getSubject());
+        } catch (JwtException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
 }
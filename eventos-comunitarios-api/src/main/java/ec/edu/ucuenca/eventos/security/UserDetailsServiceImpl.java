@@ -25,6 +25,19 @@ public class UserDetailsServiceImpl implements UserDetailsService {
                 .orElseThrow(() -> 
                         new UsernameNotFoundException("User not found with email: " + email));
         
+        return toUserDetails(user);
+    }
+    
+    // Lookup by primary key, answered from the second-level cache once the user has been loaded
+    public UserDetails loadUserById(Long userId) throws UsernameNotFoundException {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> 
+                        new UsernameNotFoundException("User not found with id: " + userId));
+        
+        return toUserDetails(user);
+    }
+    
+    private UserDetails toUserDetails(User user) {
         return new org.springframework.security.core.userdetails.User(
                 user.getEmail(),
                 user.getPasswordHash(),
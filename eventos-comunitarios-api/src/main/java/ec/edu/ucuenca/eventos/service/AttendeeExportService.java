@@ -0,0 +1,107 @@
+package ec.edu.ucuenca.eventos.service;
+
+import ec.edu.ucuenca.eventos.dto.AttendeeExportRow;
+import ec.edu.ucuenca.eventos.exception.ResourceNotFoundException;
+import ec.edu.ucuenca.eventos.exception.UnauthorizedException;
+import ec.edu.ucuenca.eventos.model.Event;
+import ec.edu.ucuenca.eventos.repository.EventRepository;
+import ec.edu.ucuenca.eventos.repository.ParticipantRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+/**
+ * Writes the attendee list of an event as CSV or NDJSON straight to the
+ * response. Rows come from a forward-only database cursor and are written as
+ * they arrive, so memory use does not depend on the number of attendees.
+ * The write methods run on the async request thread, in a transaction of
+ * their own that stays open while the cursor is read.
+ */
+@Service
+@RequiredArgsConstructor
+public class AttendeeExportService {
+    
+    private static final String CSV_HEADER = "user_id,name,email,attendance_status,registration_date";
+    
+    private final ParticipantRepository participantRepository;
+    private final EventRepository eventRepository;
+    private final JsonMapper jsonMapper;
+    
+    // Called before the response is committed, so a refusal still gets its status code
+    @Transactional(readOnly = true)
+    public void checkOrganizer(Long userId, Long eventId) {
+        Event event = eventRepository.findByIdAndDeletedAtIsNull(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Event not found"));
+        
+        if (!event.getOrganizer().getId().equals(userId)) {
+            throw new UnauthorizedException("Only the event organizer can export attendees");
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public void writeCsv(Long eventId, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        try (Stream<AttendeeExportRow> rows = participantRepository.streamAttendees(eventId)) {
+            rows.forEach(row -> {
+                try {
+                    writer.write(String.valueOf(row.getUserId()));
+                    writer.write(',');
+                    writer.write(csvField(row.getName()));
+                    writer.write(',');
+                    writer.write(csvField(row.getEmail()));
+                    writer.write(',');
+                    writer.write(row.getAttendanceStatus().name());
+                    writer.write(',');
+                    writer.write(String.valueOf(row.getRegistrationDate()));
+                    writer.write("\r\n");
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+        writer.flush();
+    }
+    
+    @Transactional(readOnly = true)
+    public void writeNdjson(Long eventId, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        try (Stream<AttendeeExportRow> rows = participantRepository.streamAttendees(eventId)) {
+            rows.forEach(row -> {
+                try {
+                    writer.write(jsonMapper.writeValueAsString(row));
+                    writer.write('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        }
+        writer.flush();
+    }
+    
+    // RFC 4180 quoting, plus a leading quote on values a spreadsheet would run as a formula
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
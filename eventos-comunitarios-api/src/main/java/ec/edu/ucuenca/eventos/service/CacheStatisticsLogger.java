@@ -0,0 +1,55 @@
+package ec.edu.ucuenca.eventos.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically logs the hit rate of the second-level cache regions and the
+ * query cache, so it is visible whether reference data is still read from
+ * Postgres. Only active when hibernate.generate_statistics is enabled.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheStatisticsLogger {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CacheStatisticsLogger.class);
+    
+    private final EntityManagerFactory entityManagerFactory;
+    
+    @Scheduled(
+            initialDelayString = "${cache.statistics.log-interval:600000}",
+            fixedDelayString = "${cache.statistics.log-interval:600000}"
+    )
+    public void logStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            return;
+        }
+        
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(region);
+            logger.info("Cache region {}: {} hits, {} misses, {} puts, hit rate {}",
+                    region,
+                    regionStatistics.getHitCount(),
+                    regionStatistics.getMissCount(),
+                    regionStatistics.getPutCount(),
+                    hitRate(regionStatistics.getHitCount(), regionStatistics.getMissCount()));
+        }
+        logger.info("Query cache: {} hits, {} misses, hit rate {}",
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                hitRate(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+    }
+    
+    private static String hitRate(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? "n/a" : String.format("%.1f%%", 100.0 * hits / total);
+    }
+}
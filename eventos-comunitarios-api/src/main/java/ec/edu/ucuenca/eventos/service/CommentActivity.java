@@ -0,0 +1,17 @@
+package ec.edu.ucuenca.eventos.service;
+
+import ec.edu.ucuenca.eventos.dto.CommentResponse;
+
+/**
+ * Published when a comment is added, edited or removed, with what the live
+ * subscribers of the event need to update their list (see
+ * {@link EventStreamHub}). The comment is null when it was deleted.
+ */
+public record CommentActivity(Long eventId, Type type, Long commentId, CommentResponse comment) {
+    
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
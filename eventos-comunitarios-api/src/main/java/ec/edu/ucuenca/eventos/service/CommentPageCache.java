@@ -0,0 +1,43 @@
+package ec.edu.ucuenca.eventos.service;
+
+import ec.edu.ucuenca.eventos.dto.CommentResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * The newest comments of each event, as responses without the caller's
+ * isOwner flag. Opening an event's comments almost always reads the first
+ * page, so busy threads are served from here and only older pages hit the
+ * database. An event's entry is dropped after any committed comment change.
+ */
+@Component
+public class CommentPageCache {
+    
+    // Enough rows for a first page of any allowed size plus the one that tells whether more follow
+    public static final int CACHED_COMMENTS = PageCursor.MAX_LIMIT + 1;
+    
+    // Beyond this many events the cache is cleared and refilled on demand
+    private static final int MAX_CACHED_EVENTS = 2_000;
+    
+    private final ConcurrentMap<Long, List<CommentResponse>> cache = new ConcurrentHashMap<>();
+    
+    public List<CommentResponse> newestComments(Long eventId, Supplier<List<CommentResponse>> loader) {
+        if (cache.size() >= MAX_CACHED_EVENTS) {
+            cache.clear();
+        }
+        // Loading inside computeIfAbsent means a concurrent evict waits for it and removes the result
+        return cache.computeIfAbsent(eventId, id -> List.copyOf(loader.get()));
+    }
+    
+    // Also after a rollback, in case the page was read inside the failed transaction
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onCommentsChanged(CommentsChanged change) {
+        cache.remove(change.eventId());
+    }
+}
@@ -2,6 +2,7 @@ package ec.edu.ucuenca.eventos.service;
 
 import ec.edu.ucuenca.eventos.dto.CommentRequest;
 import ec.edu.ucuenca.eventos.dto.CommentResponse;
+import ec.edu.ucuenca.eventos.dto.CursorPage;
 import ec.edu.ucuenca.eventos.exception.ResourceNotFoundException;
 import ec.edu.ucuenca.eventos.exception.UnauthorizedException;
 import ec.edu.ucuenca.eventos.model.Comment;
@@ -11,6 +12,8 @@ import ec.edu.ucuenca.eventos.repository.CommentRepository;
 import ec.edu.ucuenca.eventos.repository.EventRepository;
 import ec.edu.ucuenca.eventos.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,6 +27,8 @@ public class CommentService {
     private final CommentRepository commentRepository;
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
+    private final CommentPageCache commentPageCache;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public CommentResponse createComment(Long userId, Long eventId, CommentRequest request) {
@@ -40,6 +45,15 @@ public class CommentService {
                 .build();
         
         Comment savedComment = commentRepository.save(comment);
+        eventRepository.adjustCommentCount(eventId, 1);
+        eventPublisher.publishEvent(new EventChanged(eventId));
+        eventPublisher.publishEvent(new EventEngagement(eventId, EventEngagement.Type.COMMENT));
+        eventPublisher.publishEvent(new CommentsChanged(eventId));
+        eventPublisher.publishEvent(new CommentActivity(
+                eventId,
+                CommentActivity.Type.CREATED,
+                savedComment.getId(),
+                mapToCommentResponse(savedComment, null)));
         return mapToCommentResponse(savedComment, userId);
     }
     
@@ -54,6 +68,13 @@ public class CommentService {
         
         comment.setContent(request.getContent());
         Comment updatedComment = commentRepository.save(comment);
+        eventRepository.touchComments(List.of(comment.getEvent().getId()));
+        eventPublisher.publishEvent(new CommentsChanged(comment.getEvent().getId()));
+        eventPublisher.publishEvent(new CommentActivity(
+                comment.getEvent().getId(),
+                CommentActivity.Type.UPDATED,
+                commentId,
+                mapToCommentResponse(updatedComment, null)));
         return mapToCommentResponse(updatedComment, userId);
     }
     
@@ -67,14 +88,59 @@ public class CommentService {
         }
         
         commentRepository.delete(comment);
+        eventRepository.adjustCommentCount(comment.getEvent().getId(), -1);
+        eventPublisher.publishEvent(new EventChanged(comment.getEvent().getId()));
+        eventPublisher.publishEvent(new CommentsChanged(comment.getEvent().getId()));
+        eventPublisher.publishEvent(new CommentActivity(
+                comment.getEvent().getId(),
+                CommentActivity.Type.DELETED,
+                commentId,
+                null));
     }
     
+    /**
+     * Comments of the event, newest first, one keyset page at a time. The first page comes
+     * from the {@link CommentPageCache}; older pages cost one query that also loads the
+     * authors, whatever the size of the thread.
+     */
     @Transactional(readOnly = true)
-    public List<CommentResponse> getEventComments(Long eventId, Long userId) {
-        List<Comment> comments = commentRepository.findByEventIdOrderByCreatedAtDesc(eventId);
+    public CursorPage<CommentResponse> getEventComments(Long eventId, Long userId, String cursor, Integer limit) {
+        PageCursor before = PageCursor.decodeDescending(cursor);
+        int pageSize = PageCursor.normalizeLimit(limit);
         
-        return comments.stream()
-                .map(comment -> mapToCommentResponse(comment, userId))
+        List<CommentResponse> comments;
+        if (cursor == null || cursor.isBlank()) {
+            List<CommentResponse> newest = commentPageCache.newestComments(
+                    eventId, () -> findPage(eventId, before, CommentPageCache.CACHED_COMMENTS));
+            comments = newest.subList(0, Math.min(newest.size(), pageSize + 1));
+        } else {
+            comments = findPage(eventId, before, pageSize + 1);
+        }
+        
+        boolean hasMore = comments.size() > pageSize;
+        List<CommentResponse> pageComments = hasMore ? comments.subList(0, pageSize) : comments;
+        String nextCursor = null;
+        if (hasMore) {
+            CommentResponse last = pageComments.get(pageComments.size() - 1);
+            nextCursor = PageCursor.of(last.getCreatedAt(), last.getId()).encode();
+        }
+        
+        return CursorPage.<CommentResponse>builder()
+                .items(pageComments.stream()
+                        .map(comment -> comment.toBuilder()
+                                .isOwner(userId != null && userId.equals(comment.getUserId()))
+                                .build())
+                        .collect(Collectors.toList()))
+                .limit(pageSize)
+                .nextCursor(nextCursor)
+                .build();
+    }
+    
+    // Responses without the caller's isOwner flag
+    private List<CommentResponse> findPage(Long eventId, PageCursor before, int rows) {
+        return commentRepository.findPageByEventId(eventId, before.sortDate(), before.id(), Limit.of(rows))
+                .stream()
+                .map(comment -> mapToCommentResponse(comment, null))
                 .collect(Collectors.toList());
     }
     
@@ -87,7 +153,7 @@ public class CommentService {
                 .content(comment.getContent())
                 .createdAt(comment.getCreatedAt())
                 .updatedAt(comment.getUpdatedAt())
-                .isOwner(userId != null && comment.getUser().getId().equals(userId))
+                .isOwner(userId != null ? comment.getUser().getId().equals(userId) : null)
                 .build();
     }
 }
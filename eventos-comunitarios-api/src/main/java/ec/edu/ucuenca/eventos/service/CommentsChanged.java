@@ -0,0 +1,9 @@
+package ec.edu.ucuenca.eventos.service;
+
+/**
+ * Published when a comment of the event is added, edited or removed, or its
+ * author's name changes, so the cached first page of {@link CommentPageCache}
+ * is dropped once the transaction commits.
+ */
+public record CommentsChanged(Long eventId) {
+}
@@ -0,0 +1,9 @@
+package ec.edu.ucuenca.eventos.service;
+
+/**
+ * Published when an event's data, status or counters change, so in-memory
+ * copies such as {@link PublicFeedSnapshot} can refresh it once the
+ * transaction commits.
+ */
+public record EventChanged(Long eventId) {
+}
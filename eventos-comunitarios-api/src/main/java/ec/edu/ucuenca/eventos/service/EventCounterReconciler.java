@@ -0,0 +1,59 @@
+package ec.edu.ucuenca.eventos.service;
+
+import ec.edu.ucuenca.eventos.repository.EventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Periodically compares the denormalized counters on {@code events} with the
+ * participant, comment, favorite and rating rows and repairs any drift
+ * (e.g. rows removed by cascades or manual SQL). Only events edited or
+ * engaged with in the last window are checked, so a run costs what changed
+ * recently and not the whole catalog.
+ */
+@Component
+public class EventCounterReconciler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EventCounterReconciler.class);
+    
+    private final EventRepository eventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration window;
+    
+    public EventCounterReconciler(
+            EventRepository eventRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${events.counters.reconcile-window:2h}") Duration window
+    ) {
+        this.eventRepository = eventRepository;
+        this.eventPublisher = eventPublisher;
+        this.window = window;
+    }
+    
+    @Scheduled(
+            initialDelayString = "${events.counters.reconcile-initial-delay:30000}",
+            fixedDelayString = "${events.counters.reconcile-interval:3600000}"
+    )
+    @Transactional
+    public void reconcile() {
+        List<Long> driftedEventIds = eventRepository.findEventIdsWithCounterDrift(LocalDateTime.now().minus(window));
+        if (driftedEventIds.isEmpty()) {
+            return;
+        }
+        
+        logger.warn("Repairing counters of {} events: {}", driftedEventIds.size(), driftedEventIds);
+        // Counted after the lock: an adjust committed while the scan ran is not overwritten
+        eventRepository.lockByIdIn(driftedEventIds);
+        eventRepository.recountCounters(driftedEventIds);
+        driftedEventIds.forEach(eventId -> eventPublisher.publishEvent(new EventChanged(eventId)));
+    }
+}
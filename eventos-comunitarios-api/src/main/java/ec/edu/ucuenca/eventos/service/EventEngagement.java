@@ -0,0 +1,27 @@
+package ec.edu.ucuenca.eventos.service;
+
+/**
+ * Published when a user shows interest in an event: a seat taken, a favorite
+ * added, a first rating or a new comment. {@link TrendingRanking} adds it to
+ * the event's score once the transaction commits.
+ */
+public record EventEngagement(Long eventId, Type type) {
+    
+    // The names double as the signal kinds of EventRepository.findTrendingSignals
+    public enum Type {
+        REGISTRATION(3),
+        FAVORITE(2),
+        RATING(2),
+        COMMENT(1);
+        
+        private final double weight;
+        
+        Type(double weight) {
+            this.weight = weight;
+        }
+        
+        public double getWeight() {
+            return weight;
+        }
+    }
+}
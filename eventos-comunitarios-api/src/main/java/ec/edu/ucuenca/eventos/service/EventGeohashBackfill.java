@@ -0,0 +1,43 @@
+package ec.edu.ucuenca.eventos.service;
+
+import ec.edu.ucuenca.eventos.model.Event;
+import ec.edu.ucuenca.eventos.repository.EventRepository;
+import ec.edu.ucuenca.eventos.util.GeoHash;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Fills the geohash of events that got their coordinates before the column
+ * existed. New and updated events compute it themselves on save.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventGeohashBackfill implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EventGeohashBackfill.class);
+    
+    private final EventRepository eventRepository;
+    
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        List<Event> events = eventRepository.findByGeohashIsNullAndLatitudeIsNotNullAndLongitudeIsNotNull();
+        if (events.isEmpty()) {
+            return;
+        }
+        
+        for (Event event : events) {
+            String geohash = GeoHash.encode(
+                    event.getLatitude().doubleValue(), event.getLongitude().doubleValue(), GeoHash.PRECISION);
+            eventRepository.updateGeohash(event.getId(), geohash);
+        }
+        logger.info("Computed geohash of {} events", events.size());
+    }
+}
@@ -0,0 +1,163 @@
+package ec.edu.ucuenca.eventos.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import ec.edu.ucuenca.eventos.dto.EventResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized JSON of event responses, without the user flags and without the
+ * closing brace, keyed by event id and checked against updatedAt and
+ * countersUpdatedAt. Pages of the feed are written by copying these fragments
+ * and appending the caller's flags, so an unchanged event is serialized once
+ * and not on every request. Only events of the current feed snapshot are
+ * kept: each new snapshot drops the fragments of the events it no longer has.
+ * Anonymous pages are the same for every caller, so they are also kept
+ * gzipped for the current snapshot version.
+ */
+@Component
+public class EventJsonCache {
+    
+    private static final String[] FLAG_NAMES = {"isOrganizer", "hasUserRegistered", "isFavorite"};
+    
+    // Closing bytes for every combination of the three flags, indexed by their bits
+    private static final byte[][] FLAGS = new byte[8][];
+    
+    static {
+        for (int bits = 0; bits < FLAGS.length; bits++) {
+            StringBuilder flags = new StringBuilder();
+            for (int i = 0; i < FLAG_NAMES.length; i++) {
+                boolean value = (bits & (1 << (FLAG_NAMES.length - 1 - i))) != 0;
+                flags.append(",\"").append(FLAG_NAMES[i]).append("\":").append(value);
+            }
+            FLAGS[bits] = flags.append('}').toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+    
+    private static final int MAX_GZIPPED_PAGES = 256;
+    
+    private static final byte[] PAGE_START = "{\"items\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PAGE_LIMIT = "],\"limit\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PAGE_NEXT_CURSOR = ",\"nextCursor\":".getBytes(StandardCharsets.UTF_8);
+    
+    @JsonIgnoreProperties({"isOrganizer", "hasUserRegistered", "isFavorite"})
+    private interface WithoutUserFlags {
+    }
+    
+    private record Fragment(LocalDateTime updatedAt, LocalDateTime countersUpdatedAt, byte[] json) {
+        
+        boolean isFor(EventResponse response) {
+            return updatedAt.equals(response.getUpdatedAt())
+                    && Objects.equals(countersUpdatedAt, response.getCountersUpdatedAt());
+        }
+    }
+    
+    private final JsonMapper jsonMapper;
+    private final JsonMapper fragmentMapper;
+    private final UserMemberships userMemberships;
+    private final Map<Long, Fragment> fragments = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> gzippedAnonymousPages = new ConcurrentHashMap<>();
+    private volatile long gzippedSnapshotVersion = -1;
+    
+    public EventJsonCache(JsonMapper jsonMapper, UserMemberships userMemberships) {
+        this.jsonMapper = jsonMapper;
+        this.fragmentMapper = jsonMapper.rebuild().addMixIn(EventResponse.class, WithoutUserFlags.class).build();
+        this.userMemberships = userMemberships;
+    }
+    
+    /**
+     * JSON of a cursor page of base responses (see
+     * {@link EventResponseAssembler#toBaseResponse}) with the flags of the given
+     * user, all false when anonymous. Same document as serializing the
+     * {@code CursorPage} of {@link EventResponseAssembler#withUserFlags}.
+     */
+    public byte[] writePage(List<EventResponse> baseResponses, int limit, String nextCursor, Long userId) {
+        UserMemberships.Memberships memberships = userId != null ? userMemberships.forUser(userId) : null;
+        
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 + baseResponses.size() * 768);
+        out.writeBytes(PAGE_START);
+        for (int i = 0; i < baseResponses.size(); i++) {
+            EventResponse response = baseResponses.get(i);
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(fragment(response));
+            
+            int flags = 0;
+            if (userId != null && userId.equals(response.getOrganizerId())) {
+                flags |= 0b100;
+            }
+            if (memberships != null && memberships.isRegistered(response.getId())) {
+                flags |= 0b010;
+            }
+            if (memberships != null && memberships.isFavorite(response.getId())) {
+                flags |= 0b001;
+            }
+            out.writeBytes(FLAGS[flags]);
+        }
+        out.writeBytes(PAGE_LIMIT);
+        out.writeBytes(Integer.toString(limit).getBytes(StandardCharsets.UTF_8));
+        out.writeBytes(PAGE_NEXT_CURSOR);
+        out.writeBytes(jsonMapper.writeValueAsBytes(nextCursor));
+        out.write('}');
+        return out.toByteArray();
+    }
+    
+    // Gzipped anonymous page, built with the given writer the first time it is asked for
+    public byte[] gzippedAnonymousPage(long snapshotVersion, int from, int limit, Supplier<byte[]> json) {
+        if (snapshotVersion != gzippedSnapshotVersion || gzippedAnonymousPages.size() >= MAX_GZIPPED_PAGES) {
+            gzippedAnonymousPages.clear();
+            gzippedSnapshotVersion = snapshotVersion;
+        }
+        return gzippedAnonymousPages.computeIfAbsent(snapshotVersion + ":" + from + ":" + limit,
+                key -> gzip(json.get()));
+    }
+    
+    public static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onEventChanged(EventChanged change) {
+        fragments.remove(change.eventId());
+    }
+    
+    // Called by PublicFeedSnapshot with the events of each snapshot it swaps in
+    public void retainEvents(Set<Long> eventIds) {
+        fragments.keySet().retainAll(eventIds);
+    }
+    
+    private byte[] fragment(EventResponse response) {
+        Fragment fragment = fragments.get(response.getId());
+        if (fragment == null || !fragment.isFor(response)) {
+            byte[] json = fragmentMapper.writeValueAsBytes(response);
+            // Drop the closing brace so the flags can be appended
+            byte[] open = new byte[json.length - 1];
+            System.arraycopy(json, 0, open, 0, open.length);
+            fragment = new Fragment(response.getUpdatedAt(), response.getCountersUpdatedAt(), open);
+            fragments.put(response.getId(), fragment);
+        }
+        return fragment.json();
+    }
+}
@@ -0,0 +1,107 @@
+package ec.edu.ucuenca.eventos.service;
+
+import ec.edu.ucuenca.eventos.dto.EventMapCluster;
+import ec.edu.ucuenca.eventos.dto.EventMapPin;
+import ec.edu.ucuenca.eventos.dto.EventMapResponse;
+import ec.edu.ucuenca.eventos.exception.BadRequestException;
+import ec.edu.ucuenca.eventos.model.EventStatus;
+import ec.edu.ucuenca.eventos.model.EventVisibility;
+import ec.edu.ucuenca.eventos.repository.EventRepository;
+import ec.edu.ucuenca.eventos.util.GeoHash;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Markers for the map viewport. At low zoom levels events are grouped into
+ * geohash cells roughly a quarter of a map tile wide, so the response stays
+ * small whatever the number of events; from {@link #PIN_ZOOM} on, individual
+ * pins are returned.
+ */
+@Service
+@RequiredArgsConstructor
+public class EventMapService {
+    
+    public static final int PIN_ZOOM = 14;
+    public static final int MAX_ZOOM = 22;
+    
+    private static final int MAX_PINS = 300;
+    
+    // Upper bound on the index ranges scanned for one viewport
+    private static final int MAX_COVER_CELLS = 32;
+    
+    private final EventRepository eventRepository;
+    
+    @Transactional(readOnly = true)
+    public EventMapResponse getMarkers(double minLat, double minLng, double maxLat, double maxLng, int zoom) {
+        if (minLat < -90 || maxLat > 90 || minLng < -180 || maxLng > 180) {
+            throw new BadRequestException("Invalid coordinates");
+        }
+        if (minLat > maxLat || minLng > maxLng) {
+            throw new BadRequestException("Bounding box minimum must not exceed its maximum");
+        }
+        if (zoom < 0 || zoom > MAX_ZOOM) {
+            throw new BadRequestException("Zoom must be between 0 and " + MAX_ZOOM);
+        }
+        
+        String cells = String.join(",", GeoHash.cellsCovering(minLat, minLng, maxLat, maxLng, MAX_COVER_CELLS));
+        
+        if (zoom >= PIN_ZOOM) {
+            List<EventMapPin> pins = eventRepository.findMapPins(
+                    cells, minLat, minLng, maxLat, maxLng,
+                    EventVisibility.PUBLIC.name(), EventStatus.PUBLISHED.name(), MAX_PINS
+            ).stream()
+                    .map(row -> EventMapPin.builder()
+                            .id(((Number) row[0]).longValue())
+                            .title((String) row[1])
+                            .latitude(((Number) row[2]).doubleValue())
+                            .longitude(((Number) row[3]).doubleValue())
+                            .categoryId(row[4] != null ? ((Number) row[4]).longValue() : null)
+                            .categoryName((String) row[5])
+                            .build())
+                    .collect(Collectors.toList());
+            
+            return EventMapResponse.builder()
+                    .zoom(zoom)
+                    .clusters(Collections.emptyList())
+                    .pins(pins)
+                    .build();
+        }
+        
+        List<EventMapCluster> clusters = eventRepository.findMapClusters(
+                cells, minLat, minLng, maxLat, maxLng, clusterPrecision(zoom),
+                EventVisibility.PUBLIC.name(), EventStatus.PUBLISHED.name()
+        ).stream()
+                .map(row -> EventMapCluster.builder()
+                        .geohash((String) row[0])
+                        .count(((Number) row[1]).longValue())
+                        .latitude(((Number) row[2]).doubleValue())
+                        .longitude(((Number) row[3]).doubleValue())
+                        .eventIds(Arrays.stream(((String) row[4]).split(","))
+                                .map(Long::valueOf)
+                                .collect(Collectors.toList()))
+                        .build())
+                .collect(Collectors.toList());
+        
+        return EventMapResponse.builder()
+                .zoom(zoom)
+                .clusters(clusters)
+                .pins(Collections.emptyList())
+                .build();
+    }
+    
+    // Finest geohash precision whose cells are at least a quarter of a 256px tile wide
+    private int clusterPrecision(int zoom) {
+        double targetWidth = 360.0 / (1L << zoom) / 4;
+        int precision = GeoHash.PRECISION;
+        while (precision > 1 && GeoHash.cellWidth(precision) < targetWidth) {
+            precision--;
+        }
+        return precision;
+    }
+}
@@ -0,0 +1,104 @@
+package ec.edu.ucuenca.eventos.service;
+
+import ec.edu.ucuenca.eventos.dto.EventResponse;
+import ec.edu.ucuenca.eventos.dto.EventSummary;
+import ec.edu.ucuenca.eventos.model.Event;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Builds {@link EventResponse} objects for lists of events.
+ * Counters are read from the event row itself and the user flags come from
+ * the cached {@link UserMemberships}, so the number of queries does not
+ * depend on the list size.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventResponseAssembler {
+    
+    private final UserMemberships userMemberships;
+    
+    public EventResponse toResponse(Event event, Long userId) {
+        return toResponses(List.of(event), userId).get(0);
+    }
+    
+    public List<EventResponse> toResponses(List<Event> events, Long userId) {
+        return withUserFlags(events.stream()
+                .map(this::toBaseResponse)
+                .collect(Collectors.toList()), userId);
+    }
+    
+    // Response without the user-specific flags, safe to share between users
+    public EventResponse toBaseResponse(Event event) {
+        return EventResponse.builder()
+                .id(event.getId())
+                .title(event.getTitle())
+                .description(event.getDescription())
+                .categoryId(event.getCategory() != null ? event.getCategory().getId() : null)
+                .categoryName(event.getCategory() != null ? event.getCategory().getName() : null)
+                .organizerId(event.getOrganizer() != null ? event.getOrganizer().getId() : null)
+                .organizerName(event.getOrganizer() != null ? event.getOrganizer().getName() : null)
+                .startDate(event.getStartDate())
+                .endDate(event.getEndDate())
+                .location(event.getLocation())
+                .latitude(event.getLatitude())
+                .longitude(event.getLongitude())
+                .maxCapacity(event.getMaxCapacity())
+                .coverImage(event.getCoverImage())
+                .visibility(event.getVisibility())
+                .status(event.getStatus())
+                .createdAt(event.getCreatedAt())
+                .updatedAt(event.getUpdatedAt())
+                .participantCount(event.getParticipantCount())
+                .commentCount(event.getCommentCount())
+                .averageRating(event.getAverageRating())
+                .ratingCount(event.getRatingCount())
+                .favoriteCount(event.getFavoriteCount())
+                .countersUpdatedAt(event.getCountersUpdatedAt())
+                .build();
+    }
+    
+    public EventSummary toSummary(EventResponse response) {
+        return EventSummary.builder()
+                .id(response.getId())
+                .title(response.getTitle())
+                .categoryId(response.getCategoryId())
+                .categoryName(response.getCategoryName())
+                .startDate(response.getStartDate())
+                .endDate(response.getEndDate())
+                .location(response.getLocation())
+                .latitude(response.getLatitude())
+                .longitude(response.getLongitude())
+                .coverImage(response.getCoverImage())
+                .status(response.getStatus())
+                .createdAt(response.getCreatedAt())
+                .participantCount(response.getParticipantCount())
+                .commentCount(response.getCommentCount())
+                .favoriteCount(response.getFavoriteCount())
+                .ratingCount(response.getRatingCount())
+                .averageRating(response.getAverageRating())
+                .build();
+    }
+    
+    // Copies of the base responses with the flags of the given user (all false when anonymous).
+    // The base responses are left untouched.
+    public List<EventResponse> withUserFlags(List<EventResponse> baseResponses, Long userId) {
+        if (baseResponses.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        UserMemberships.Memberships memberships = userId != null ? userMemberships.forUser(userId) : null;
+        
+        return baseResponses.stream()
+                .map(response -> response.toBuilder()
+                        .isOrganizer(userId != null && userId.equals(response.getOrganizerId()))
+                        .hasUserRegistered(memberships != null && memberships.isRegistered(response.getId()))
+                        .isFavorite(memberships != null && memberships.isFavorite(response.getId()))
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
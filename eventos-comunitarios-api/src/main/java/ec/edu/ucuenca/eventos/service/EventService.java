@@ -1,18 +1,34 @@
 package ec.edu.ucuenca.eventos.service;
 
+import ec.edu.ucuenca.eventos.dto.CursorPage;
+import ec.edu.ucuenca.eventos.dto.EventChangesResponse;
 import ec.edu.ucuenca.eventos.dto.EventRequest;
 import ec.edu.ucuenca.eventos.dto.EventResponse;
+import ec.edu.ucuenca.eventos.dto.EventSearchRequest;
+import ec.edu.ucuenca.eventos.dto.EventSearchSort;
+import ec.edu.ucuenca.eventos.dto.EventSummary;
 import ec.edu.ucuenca.eventos.exception.BadRequestException;
 import ec.edu.ucuenca.eventos.exception.ResourceNotFoundException;
 import ec.edu.ucuenca.eventos.exception.UnauthorizedException;
 import ec.edu.ucuenca.eventos.model.*;
 import ec.edu.ucuenca.eventos.repository.*;
+import ec.edu.ucuenca.eventos.util.GeoHash;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,12 +36,20 @@ import java.util.stream.Collectors;
 public class EventService {
     
     private final EventRepository eventRepository;
+    private final EventTombstoneRepository eventTombstoneRepository;
+    private final ParticipantRepository participantRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
-    private final ParticipantRepository participantRepository;
-    private final CommentRepository commentRepository;
-    private final RatingRepository ratingRepository;
-    private final FavoriteRepository favoriteRepository;
+    private final ParticipantService participantService;
+    private final EventResponseAssembler eventResponseAssembler;
+    private final PublicFeedSnapshot publicFeedSnapshot;
+    private final TrendingRanking trendingRanking;
+    private final EventJsonCache eventJsonCache;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private static final int DEFAULT_NEARBY_RADIUS_KM = 10;
+    private static final int MAX_NEARBY_RADIUS_KM = 100;
+    private static final Duration SYNC_LAG = Duration.ofSeconds(10);
     
     @Transactional
     public EventResponse createEvent(Long userId, EventRequest request) {
@@ -57,7 +81,7 @@ public class EventService {
                 .build();
         
         Event savedEvent = eventRepository.save(event);
-        return mapToEventResponse(savedEvent, userId);
+        return eventResponseAssembler.toResponse(savedEvent, userId);
     }
     
     @Transactional
@@ -86,14 +110,21 @@ public class EventService {
         event.setLocation(request.getLocation());
         event.setLatitude(request.getLatitude());
         event.setLongitude(request.getLongitude());
+        Integer previousCapacity = event.getMaxCapacity();
         event.setMaxCapacity(request.getMaxCapacity());
         event.setCoverImage(request.getCoverImage());
         if (request.getVisibility() != null) {
             event.setVisibility(request.getVisibility());
         }
         
-        Event updatedEvent = eventRepository.save(event);
-        return mapToEventResponse(updatedEvent, userId);
+        Event updatedEvent = eventRepository.saveAndFlush(event);
+        
+        // New seats go to the waitlist first
+        if (previousCapacity != null && (request.getMaxCapacity() == null || request.getMaxCapacity() > previousCapacity)) {
+            participantService.promoteFromWaitlist(eventId);
+        }
+        eventPublisher.publishEvent(new EventChanged(eventId));
+        return eventResponseAssembler.toResponse(updatedEvent, userId);
     }
     
     @Transactional
@@ -111,6 +142,7 @@ public class EventService {
         
         event.setStatus(EventStatus.PUBLISHED);
         eventRepository.save(event);
+        eventPublisher.publishEvent(new EventChanged(eventId));
     }
     
     @Transactional
@@ -128,6 +160,7 @@ public class EventService {
         
         event.setStatus(EventStatus.CANCELLED);
         eventRepository.save(event);
+        eventPublisher.publishEvent(new EventChanged(eventId));
     }
     
     @Transactional
@@ -145,6 +178,7 @@ public class EventService {
         
         event.setStatus(EventStatus.ARCHIVED);
         eventRepository.save(event);
+        eventPublisher.publishEvent(new EventChanged(eventId));
     }
     
     @Transactional
@@ -159,18 +193,50 @@ public class EventService {
         // Soft delete
         event.setDeletedAt(LocalDateTime.now());
         eventRepository.save(event);
+        eventPublisher.publishEvent(new EventChanged(eventId));
     }
     
-    @Transactional(readOnly = true)
-    public List<EventResponse> getPublicEvents(Long userId) {
-        List<Event> events = eventRepository.findByVisibilityAndStatusAndDeletedAtIsNull(
-                EventVisibility.PUBLIC, 
-                EventStatus.PUBLISHED
-        );
+    // Served from the in-memory snapshot and the cached JSON of each event: no transaction,
+    // no query for anonymous callers, and only changed events are serialized again.
+    // With gzip the body is compressed, and anonymous pages come compressed from the cache.
+    public byte[] getPublicEventsJson(Long userId, String cursor, Integer limit, boolean gzip) {
+        PageCursor after = PageCursor.decodeAscending(cursor);
+        int pageSize = PageCursor.normalizeLimit(limit);
+        PublicFeedSnapshot.Snapshot snapshot = publicFeedSnapshot.current();
+        List<EventResponse> events = snapshot.events();
+        
+        int from = snapshot.indexAfter(after.sortDate(), after.id());
+        int to = Math.min(from + pageSize, events.size());
+        List<EventResponse> pageEvents = events.subList(from, to);
+        
+        String nextCursor = null;
+        if (to < events.size()) {
+            EventResponse last = pageEvents.get(pageEvents.size() - 1);
+            nextCursor = PageCursor.of(last.getStartDate(), last.getId()).encode();
+        }
+        
+        String pageNextCursor = nextCursor;
+        if (gzip && userId == null) {
+            return eventJsonCache.gzippedAnonymousPage(snapshot.version(), from, pageSize,
+                    () -> eventJsonCache.writePage(pageEvents, pageSize, pageNextCursor, null));
+        }
+        byte[] json = eventJsonCache.writePage(pageEvents, pageSize, nextCursor, userId);
+        return gzip ? EventJsonCache.gzip(json) : json;
+    }
+    
+    // Summaries of the public feed, from the in-memory snapshot
+    public CursorPage<EventSummary> getPublicEventSummaries(String cursor, Integer limit) {
+        PageCursor after = PageCursor.decodeAscending(cursor);
+        int pageSize = PageCursor.normalizeLimit(limit);
+        PublicFeedSnapshot.Snapshot snapshot = publicFeedSnapshot.current();
+        List<EventResponse> events = snapshot.events();
         
-        return events.stream()
-                .map(event -> mapToEventResponse(event, userId))
+        int from = snapshot.indexAfter(after.sortDate(), after.id());
+        List<EventSummary> summaries = events.subList(from, Math.min(from + pageSize + 1, events.size())).stream()
+                .map(eventResponseAssembler::toSummary)
                 .collect(Collectors.toList());
+        
+        return pageOf(summaries, pageSize, summary -> PageCursor.of(summary.getStartDate(), summary.getId()));
     }
     
     @Transactional(readOnly = true)
@@ -178,117 +244,345 @@ public class EventService {
         Event event = eventRepository.findByIdAndDeletedAtIsNull(eventId)
                 .orElseThrow(() -> new ResourceNotFoundException("Event not found"));
         
-        return mapToEventResponse(event, userId);
+        return eventResponseAssembler.toResponse(event, userId);
     }
     
+    // Live updates carry comment bodies and author names: public published events are open
+    // to anyone, the others only to their organizer and participants
     @Transactional(readOnly = true)
-    public List<EventResponse> getMyEvents(Long userId) {
-        List<Event> events = eventRepository.findByOrganizerIdAndDeletedAtIsNull(userId);
-
-        return events.stream()
-                .map(event -> mapToEventResponse(event, userId))
+    public void checkCanFollow(Long eventId, Long userId) {
+        List<Object[]> access = eventRepository.findAccessById(eventId);
+        if (access.isEmpty()) {
+            throw new ResourceNotFoundException("Event not found");
+        }
+        
+        Object[] row = access.get(0);
+        if (row[0] == EventVisibility.PUBLIC && row[1] == EventStatus.PUBLISHED) {
+            return;
+        }
+        if (userId == null
+                || !(userId.equals(row[2]) || participantRepository.existsByEventIdAndUserId(eventId, userId))) {
+            throw new UnauthorizedException("You are not allowed to follow this event");
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<EventResponse> getMyEvents(Long userId, String cursor, Integer limit) {
+        PageCursor before = PageCursor.decodeDescending(cursor);
+        int pageSize = PageCursor.normalizeLimit(limit);
+        List<Event> events = eventRepository.findPageByOrganizerId(
+                userId,
+                before.sortDate(),
+                before.id(),
+                Limit.of(pageSize + 1)
+        );
+        
+        return toPage(events, pageSize, event -> PageCursor.of(event.getCreatedAt(), event.getId()), userId);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<EventSummary> getMyEventSummaries(Long userId, String cursor, Integer limit) {
+        PageCursor before = PageCursor.decodeDescending(cursor);
+        int pageSize = PageCursor.normalizeLimit(limit);
+        List<EventSummary> summaries = eventRepository.findSummaryPageByOrganizerId(
+                userId,
+                before.sortDate(),
+                before.id(),
+                Limit.of(pageSize + 1)
+        );
+        
+        return pageOf(summaries, pageSize, summary -> PageCursor.of(summary.getCreatedAt(), summary.getId()));
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<EventResponse> getAttendingEvents(Long userId, String cursor, Integer limit) {
+        // Events the user registered for, without deleted events or the ones they organize
+        PageCursor after = PageCursor.decodeAscending(cursor);
+        int pageSize = PageCursor.normalizeLimit(limit);
+        List<Event> events = eventRepository.findAttendingEventsByUserId(
+                userId,
+                after.sortDate(),
+                after.id(),
+                Limit.of(pageSize + 1)
+        );
+        
+        return toPage(events, pageSize, event -> PageCursor.of(event.getStartDate(), event.getId()), userId);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<EventSummary> getAttendingEventSummaries(Long userId, String cursor, Integer limit) {
+        PageCursor after = PageCursor.decodeAscending(cursor);
+        int pageSize = PageCursor.normalizeLimit(limit);
+        List<EventSummary> summaries = eventRepository.findAttendingSummariesByUserId(
+                userId,
+                after.sortDate(),
+                after.id(),
+                Limit.of(pageSize + 1)
+        );
+        
+        return pageOf(summaries, pageSize, summary -> PageCursor.of(summary.getStartDate(), summary.getId()));
+    }
+    
+    /**
+     * Search combining any of the filters of the request in a single query. The
+     * cursor holds the sort key of the last item: start date, creation date or
+     * text rank.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<EventResponse> searchEvents(EventSearchRequest request, Long userId) {
+        int pageSize = PageCursor.normalizeLimit(request.getLimit());
+        EventSearchSort sort = searchSort(request);
+        PageCursor after = searchCursor(sort, request.getCursor());
+        
+        List<Object[]> rows = eventRepository.search(searchFilter(request), sort, searchText(request),
+                sortKey(sort, after), after.id(), pageSize + 1);
+        CursorPage<Object[]> page = pageOf(rows, pageSize, row -> cursorAt(row[1], ((Event) row[0]).getId()));
+        List<Event> events = page.getItems().stream()
+                .map(row -> (Event) row[0])
                 .collect(Collectors.toList());
+        
+        return CursorPage.<EventResponse>builder()
+                .items(eventResponseAssembler.toResponses(events, userId))
+                .limit(pageSize)
+                .nextCursor(page.getNextCursor())
+                .build();
     }
-
+    
+    // Same search as summaries, built without loading any entity
     @Transactional(readOnly = true)
-    public List<EventResponse> getAttendingEvents(Long userId) {
-        // Get all participations for this user
-        List<Participant> participations = participantRepository.findByUserId(userId);
-
-        // Map to events, filtering out deleted events and events where user is organizer
-        return participations.stream()
-                .map(Participant::getEvent)
-                .filter(event -> event.getDeletedAt() == null)
-                .filter(event -> !event.getOrganizer().getId().equals(userId))
-                .map(event -> mapToEventResponse(event, userId))
+    public CursorPage<EventSummary> searchEventSummaries(EventSearchRequest request) {
+        int pageSize = PageCursor.normalizeLimit(request.getLimit());
+        EventSearchSort sort = searchSort(request);
+        PageCursor after = searchCursor(sort, request.getCursor());
+        
+        List<Object[]> rows = eventRepository.searchSummaries(searchFilter(request), sort, searchText(request),
+                sortKey(sort, after), after.id(), pageSize + 1);
+        CursorPage<Object[]> page = pageOf(rows, pageSize, row -> cursorAt(row[1], ((EventSummary) row[0]).getId()));
+        
+        return CursorPage.<EventSummary>builder()
+                .items(page.getItems().stream()
+                        .map(row -> (EventSummary) row[0])
+                        .collect(Collectors.toList()))
+                .limit(pageSize)
+                .nextCursor(page.getNextCursor())
+                .build();
+    }
+    
+    @Transactional(readOnly = true)
+    public List<EventResponse> getNearbyEvents(double latitude, double longitude, Double radiusKm,
+                                               Integer limit, Long userId) {
+        Map<Long, Double> distances = nearbyDistances(latitude, longitude, radiusKm, limit);
+        List<Event> events = inOrder(distances.keySet(), eventRepository.findByIdIn(distances.keySet()), Event::getId);
+        
+        List<EventResponse> responses = eventResponseAssembler.toResponses(events, userId);
+        responses.forEach(response -> response.setDistanceKm(distances.get(response.getId())));
+        return responses;
+    }
+    
+    @Transactional(readOnly = true)
+    public List<EventSummary> getNearbyEventSummaries(double latitude, double longitude, Double radiusKm,
+                                                      Integer limit) {
+        Map<Long, Double> distances = nearbyDistances(latitude, longitude, radiusKm, limit);
+        List<EventSummary> summaries = inOrder(
+                distances.keySet(), eventRepository.findSummariesByIdIn(distances.keySet()), EventSummary::getId);
+        
+        summaries.forEach(summary -> summary.setDistanceKm(distances.get(summary.getId())));
+        return summaries;
+    }
+    
+    // Served from the in-memory ranking and feed snapshot, no query besides the user flags
+    public List<EventResponse> getTrendingEvents(Long categoryId, Integer limit, Long userId) {
+        return eventResponseAssembler.withUserFlags(
+                trendingRanking.top(categoryId, PageCursor.normalizeLimit(limit)), userId);
+    }
+    
+    public List<EventSummary> getTrendingEventSummaries(Long categoryId, Integer limit) {
+        return trendingRanking.top(categoryId, PageCursor.normalizeLimit(limit)).stream()
+                .map(eventResponseAssembler::toSummary)
                 .collect(Collectors.toList());
     }
     
+    /**
+     * Delta sync: public, published events changed after the {@code since} watermark, plus the
+     * ids of events the client should drop. Changes are read in (updatedAt, id) order from
+     * idx_events_updated_at_id, so the cost depends on what changed and not on the catalog size.
+     * The watermark stays {@link #SYNC_LAG} behind the clock on the last page, so a transaction
+     * that stamped updatedAt but committed late is picked up by the next call. Clients may
+     * receive an event twice and must apply changes as upserts. Counter changes do not move
+     * updatedAt, so the counters returned are current as of the read and are refreshed by the
+     * detail read or the live stream, not by this feed.
+     */
     @Transactional(readOnly = true)
-    public List<EventResponse> searchEvents(String query, Long categoryId, Long userId) {
-        List<Event> events;
-        
-        if (query != null && !query.trim().isEmpty() && categoryId != null) {
-            events = eventRepository.searchByTitleAndCategory(
-                    query, 
-                    categoryId, 
-                    EventVisibility.PUBLIC, 
-                    EventStatus.PUBLISHED
-            );
-        } else if (query != null && !query.trim().isEmpty()) {
-            events = eventRepository.searchByTitle(
-                    query, 
-                    EventVisibility.PUBLIC, 
-                    EventStatus.PUBLISHED
-            );
-        } else if (categoryId != null) {
-            events = eventRepository.findByCategoryIdAndVisibilityAndStatusAndDeletedAtIsNull(
-                    categoryId, 
-                    EventVisibility.PUBLIC, 
-                    EventStatus.PUBLISHED
-            );
+    public EventChangesResponse getChanges(String since, Integer limit, Long userId) {
+        boolean initialSync = since == null || since.isBlank();
+        PageCursor after = PageCursor.decodeAscending(since);
+        int pageSize = PageCursor.normalizeLimit(limit);
+        List<Event> events = eventRepository.findChangedAfter(after.sortDate(), after.id(), Limit.of(pageSize + 1));
+        boolean hasMore = events.size() > pageSize;
+        List<Event> changed = hasMore ? events.subList(0, pageSize) : events;
+        
+        // On the last page every change up to now has been read, so the watermark moves to the
+        // settled point; otherwise it moves to the last change returned
+        PageCursor watermark = after;
+        if (hasMore) {
+            Event last = changed.get(changed.size() - 1);
+            watermark = PageCursor.of(last.getUpdatedAt(), last.getId());
         } else {
-            events = getPublicEvents(userId).stream()
-                    .map(this::mapResponseToEvent)
-                    .collect(Collectors.toList());
+            LocalDateTime settled = LocalDateTime.now().minus(SYNC_LAG);
+            if (settled.isAfter(after.sortDate())) {
+                watermark = PageCursor.of(settled, 0L);
+            }
         }
         
-        return events.stream()
-                .map(event -> mapToEventResponse(event, userId))
-                .collect(Collectors.toList());
+        List<Event> visible = new ArrayList<>();
+        List<Long> removedEventIds = new ArrayList<>();
+        for (Event event : changed) {
+            if (!event.isDeleted() && event.isPublic() && event.isPublished()) {
+                visible.add(event);
+            } else if (!initialSync) {
+                removedEventIds.add(event.getId());
+            }
+        }
+        if (!initialSync && watermark.sortDate().isAfter(after.sortDate())) {
+            removedEventIds.addAll(eventTombstoneRepository.findEventIdsDeletedBetween(
+                    after.sortDate(), watermark.sortDate()));
+        }
+        
+        return EventChangesResponse.builder()
+                .events(eventResponseAssembler.toResponses(visible, userId))
+                .removedEventIds(removedEventIds)
+                .watermark(watermark.encode())
+                .hasMore(hasMore)
+                .build();
     }
     
-    private EventResponse mapToEventResponse(Event event, Long userId) {
-        Long participantCount = participantRepository.countByEventId(event.getId());
-        Long commentCount = commentRepository.countByEventId(event.getId());
-        Double averageRating = ratingRepository.getAverageRatingByEventId(event.getId());
-        Long ratingCount = ratingRepository.countByEventId(event.getId());
-        Long favoriteCount = favoriteRepository.countByEventId(event.getId());
-        
-        Boolean hasUserRegistered = false;
-        Boolean isFavorite = false;
-        Boolean isOrganizer = false;
-        
-        if (userId != null) {
-            hasUserRegistered = participantRepository.existsByEventIdAndUserId(event.getId(), userId);
-            isFavorite = favoriteRepository.existsByEventIdAndUserId(event.getId(), userId);
-            isOrganizer = event.getOrganizer().getId().equals(userId);
+    // Filters of the search after checking them. Drafts are only visible to their organizer.
+    private Specification<Event> searchFilter(EventSearchRequest request) {
+        EventStatus status = request.getStatus() != null ? request.getStatus() : EventStatus.PUBLISHED;
+        if (status == EventStatus.DRAFT) {
+            throw new BadRequestException("Draft events cannot be searched");
+        }
+        if (request.getStartDate() != null && request.getEndDate() != null
+                && request.getEndDate().isBefore(request.getStartDate())) {
+            throw new BadRequestException("End date must be after start date");
         }
         
-        return EventResponse.builder()
-                .id(event.getId())
-                .title(event.getTitle())
-                .description(event.getDescription())
-                .categoryId(event.getCategory().getId())
-                .categoryName(event.getCategory().getName())
-                .organizerId(event.getOrganizer().getId())
-                .organizerName(event.getOrganizer().getName())
-                .startDate(event.getStartDate())
-                .endDate(event.getEndDate())
-                .location(event.getLocation())
-                .latitude(event.getLatitude())
-                .longitude(event.getLongitude())
-                .maxCapacity(event.getMaxCapacity())
-                .coverImage(event.getCoverImage())
-                .visibility(event.getVisibility())
-                .status(event.getStatus())
-                .createdAt(event.getCreatedAt())
-                .updatedAt(event.getUpdatedAt())
-                .participantCount(participantCount)
-                .commentCount(commentCount)
-                .averageRating(averageRating)
-                .ratingCount(ratingCount)
-                .favoriteCount(favoriteCount)
-                .isOrganizer(isOrganizer)
-                .hasUserRegistered(hasUserRegistered)
-                .isFavorite(isFavorite)
+        Double minLat = request.getMinLat(), minLng = request.getMinLng();
+        Double maxLat = request.getMaxLat(), maxLng = request.getMaxLng();
+        boolean anyBound = minLat != null || minLng != null || maxLat != null || maxLng != null;
+        if (anyBound) {
+            if (minLat == null || minLng == null || maxLat == null || maxLng == null) {
+                throw new BadRequestException("Bounding box needs minLat, minLng, maxLat and maxLng");
+            }
+            if (minLat < -90 || maxLat > 90 || minLng < -180 || maxLng > 180) {
+                throw new BadRequestException("Invalid coordinates");
+            }
+            if (minLat > maxLat || minLng > maxLng) {
+                throw new BadRequestException("Bounding box minimum must not exceed its maximum");
+            }
+        }
+        
+        return Specification.allOf(
+                EventSpecifications.visible(EventVisibility.PUBLIC, status),
+                EventSpecifications.matchesText(searchText(request)),
+                EventSpecifications.inCategory(request.getCategoryId()),
+                EventSpecifications.organizedBy(request.getOrganizerId()),
+                EventSpecifications.startsBetween(request.getStartDate(), request.getEndDate()),
+                EventSpecifications.withSeatsAvailable(request.getSeatsAvailable()),
+                EventSpecifications.withinBounds(minLat, minLng, maxLat, maxLng)
+        );
+    }
+    
+    private static String searchText(EventSearchRequest request) {
+        return StringUtils.hasText(request.getQ()) ? request.getQ().trim() : null;
+    }
+    
+    // Relevance when there is a text to rank by, start date otherwise
+    private static EventSearchSort searchSort(EventSearchRequest request) {
+        String text = searchText(request);
+        EventSearchSort sort = request.getSort() != null ? request.getSort()
+                : text != null ? EventSearchSort.RELEVANCE : EventSearchSort.START_DATE;
+        if (sort == EventSearchSort.RELEVANCE && text == null) {
+            throw new BadRequestException("Sorting by relevance needs a text query");
+        }
+        return sort;
+    }
+    
+    private static PageCursor searchCursor(EventSearchSort sort, String cursor) {
+        return switch (sort) {
+            case START_DATE -> PageCursor.decodeAscending(cursor);
+            case NEWEST -> PageCursor.decodeDescending(cursor);
+            case RELEVANCE -> PageCursor.decodeRanked(cursor);
+        };
+    }
+    
+    private static Comparable<?> sortKey(EventSearchSort sort, PageCursor cursor) {
+        return sort == EventSearchSort.RELEVANCE ? cursor.sortRank() : cursor.sortDate();
+    }
+    
+    private static PageCursor cursorAt(Object sortKey, Long id) {
+        return sortKey instanceof Number rank
+                ? PageCursor.of(rank.floatValue(), id)
+                : PageCursor.of((LocalDateTime) sortKey, id);
+    }
+    
+    // Distance of each event id within the radius, nearest first
+    private Map<Long, Double> nearbyDistances(double latitude, double longitude, Double radiusKm, Integer limit) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new BadRequestException("Invalid coordinates");
+        }
+        double radius = radiusKm != null ? radiusKm : DEFAULT_NEARBY_RADIUS_KM;
+        if (radius <= 0 || radius > MAX_NEARBY_RADIUS_KM) {
+            throw new BadRequestException("Radius must be greater than 0 and at most " + MAX_NEARBY_RADIUS_KM + " km");
+        }
+        int pageSize = PageCursor.normalizeLimit(limit);
+        
+        List<Object[]> rows = eventRepository.findNearby(
+                String.join(",", GeoHash.cellsAround(latitude, longitude, radius)),
+                latitude,
+                longitude,
+                radius,
+                EventVisibility.PUBLIC.name(),
+                EventStatus.PUBLISHED.name(),
+                pageSize
+        );
+        
+        Map<Long, Double> distances = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            distances.put(((Number) row[0]).longValue(), ((Number) row[1]).doubleValue());
+        }
+        return distances;
+    }
+    
+    // Items loaded by id, put back in the order of the ids
+    private static <T> List<T> inOrder(Collection<Long> ids, List<T> items, Function<T, Long> idOf) {
+        Map<Long, T> itemsById = items.stream().collect(Collectors.toMap(idOf, Function.identity()));
+        return ids.stream()
+                .map(itemsById::get)
+                .collect(Collectors.toList());
+    }
+    
+    // Items were fetched with one extra row to know whether another page follows
+    private static <T> CursorPage<T> pageOf(List<T> items, int pageSize, Function<T, PageCursor> cursorOf) {
+        boolean hasMore = items.size() > pageSize;
+        List<T> pageItems = hasMore ? items.subList(0, pageSize) : items;
+        
+        return CursorPage.<T>builder()
+                .items(pageItems)
+                .limit(pageSize)
+                .nextCursor(hasMore ? cursorOf.apply(pageItems.get(pageItems.size() - 1)).encode() : null)
                 .build();
     }
     
-    private Event mapResponseToEvent(EventResponse response) {
-        // This is a simplified mapping for internal use only
-        // In practice, you should fetch from repository
-        return eventRepository.findById(response.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Event not found"));
+    // Page of responses for events fetched with one extra row
+    private CursorPage<EventResponse> toPage(List<Event> events, int pageSize,
+                                             Function<Event, PageCursor> cursorOf, Long userId) {
+        CursorPage<Event> page = pageOf(events, pageSize, cursorOf);
+        
+        return CursorPage.<EventResponse>builder()
+                .items(eventResponseAssembler.toResponses(page.getItems(), userId))
+                .limit(pageSize)
+                .nextCursor(page.getNextCursor())
+                .build();
     }
 }
@@ -0,0 +1,342 @@
+package ec.edu.ucuenca.eventos.service;
+
+import ec.edu.ucuenca.eventos.dto.EventStreamUpdate;
+import ec.edu.ucuenca.eventos.exception.ServiceUnavailableException;
+import ec.edu.ucuenca.eventos.model.EventStatus;
+import ec.edu.ucuenca.eventos.repository.EventRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live updates of the events open in detail and comment screens, over
+ * Server-Sent Events. Committed comment activity and counter changes are
+ * collected per event and pushed every flush interval as one message, so a
+ * burst of registrations costs subscribers one update. The message is
+ * serialized once per event and written to every subscriber; the counters of
+ * all changed events are read with a single query per flush.
+ * <p>
+ * A subscriber is an async response held by the servlet container: no thread
+ * and no database connection is kept while it waits. Writes go through a
+ * small outbox per subscriber, drained by a dedicated sender pool, so the
+ * scheduler only queues messages and a slow client delays nobody else. A
+ * client whose outbox fills up is disconnected; a write blocked on a dead
+ * connection ends with the container's connection timeout. Subscriptions are
+ * local to this node, and a client that reconnects reloads the event and
+ * comments instead of replaying missed messages.
+ */
+@Component
+public class EventStreamHub {
+    
+    private static final long RETRY_AFTER_SECONDS = 30;
+    
+    // Messages a subscriber may have waiting before it is considered gone
+    private static final int MAX_PENDING_MESSAGES = 16;
+    
+    private final EventRepository eventRepository;
+    private final JsonMapper jsonMapper;
+    private final Duration timeout;
+    private final int maxSubscribers;
+    private final int senderCount;
+    
+    private final ConcurrentMap<Long, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong messageId = new AtomicLong();
+    
+    private ExecutorService senders;
+    
+    public EventStreamHub(
+            EventRepository eventRepository,
+            JsonMapper jsonMapper,
+            @Value("${events.stream.timeout:30m}") Duration timeout,
+            @Value("${events.stream.max-subscribers:10000}") int maxSubscribers,
+            @Value("${events.stream.senders:4}") int senderCount
+    ) {
+        this.eventRepository = eventRepository;
+        this.jsonMapper = jsonMapper;
+        this.timeout = timeout;
+        this.maxSubscribers = maxSubscribers;
+        this.senderCount = senderCount;
+    }
+    
+    private static final class Channel {
+        
+        private final Map<SseEmitter, Outbox> subscribers = new ConcurrentHashMap<>();
+        private final Queue<EventStreamUpdate.CommentChange> comments = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean countersChanged = new AtomicBoolean();
+        
+        // Last counters pushed, cleared when someone subscribes so they get them too
+        private volatile EventStreamUpdate.Counters lastCounters;
+    }
+    
+    // A message serialized once and written as is to every subscriber
+    private record Message(Set<ResponseBodyEmitter.DataWithMediaType> data, boolean last) {
+    }
+    
+    /**
+     * Messages waiting to be written to one subscriber. At most one sender drains it at a
+     * time, so messages keep their order and a blocked write holds a single sender thread.
+     */
+    private final class Outbox {
+        
+        private final Long eventId;
+        private final SseEmitter emitter;
+        private final Queue<Message> messages = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private volatile boolean closed;
+        
+        private Outbox(Long eventId, SseEmitter emitter) {
+            this.eventId = eventId;
+            this.emitter = emitter;
+        }
+        
+        private void offer(Message message) {
+            if (closed) {
+                return;
+            }
+            if (size.incrementAndGet() > MAX_PENDING_MESSAGES) {
+                // Not reading fast enough: drop it rather than buffer for it
+                unsubscribe(eventId, emitter);
+                closed = true;
+            } else {
+                messages.add(message);
+            }
+            schedule();
+        }
+        
+        private void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException ex) {
+                    // Shutting down
+                    draining.set(false);
+                }
+            }
+        }
+        
+        private void drain() {
+            try {
+                Message message;
+                while (!closed && (message = messages.poll()) != null) {
+                    size.decrementAndGet();
+                    if (!send(eventId, emitter, message.data())) {
+                        // send already ended the response
+                        completed.set(true);
+                        closed = true;
+                    } else if (message.last()) {
+                        closed = true;
+                    }
+                }
+                if (closed) {
+                    messages.clear();
+                    if (completed.compareAndSet(false, true)) {
+                        emitter.complete();
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+            // Offered, or closed, while this drain was finishing
+            if (closed ? !completed.get() : !messages.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+    
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(senderCount, runnable -> {
+            Thread thread = new Thread(runnable, "event-stream-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void stop() {
+        senders.shutdownNow();
+    }
+    
+    /**
+     * Adds a subscriber without touching the database: with open-in-view, a connection used
+     * by the request would stay checked out for as long as the stream is open. The next flush
+     * sends the current counters instead, and ends the stream with {@code deleted} when the
+     * event does not exist.
+     */
+    public SseEmitter subscribe(Long eventId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceUnavailableException("Too many live subscribers, try again later", RETRY_AFTER_SECONDS);
+        }
+        
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        channels.compute(eventId, (id, channel) -> {
+            Channel target = channel != null ? channel : new Channel();
+            target.subscribers.put(emitter, new Outbox(eventId, emitter));
+            target.lastCounters = null;
+            target.countersChanged.set(true);
+            return target;
+        });
+        emitter.onCompletion(() -> unsubscribe(eventId, emitter));
+        emitter.onTimeout(() -> unsubscribe(eventId, emitter));
+        emitter.onError(ex -> unsubscribe(eventId, emitter));
+        
+        // Commits the response headers right away, so the client knows it is connected
+        try {
+            emitter.send(SseEmitter.event().comment("connected").reconnectTime(5_000));
+        } catch (IOException ex) {
+            emitter.completeWithError(ex);
+        }
+        return emitter;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChanged change) {
+        Channel channel = channels.get(change.eventId());
+        if (channel != null) {
+            channel.countersChanged.set(true);
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentActivity(CommentActivity activity) {
+        Channel channel = channels.get(activity.eventId());
+        if (channel != null) {
+            channel.comments.add(EventStreamUpdate.CommentChange.builder()
+                    .type(activity.type().name())
+                    .commentId(activity.commentId())
+                    .comment(activity.comment())
+                    .build());
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${events.stream.flush-interval:250}")
+    public void flush() {
+        if (channels.isEmpty()) {
+            return;
+        }
+        
+        Set<Long> changedIds = new HashSet<>();
+        channels.forEach((eventId, channel) -> {
+            if (channel.countersChanged.getAndSet(false)) {
+                changedIds.add(eventId);
+            }
+        });
+        Map<Long, Object[]> counterRows = new HashMap<>();
+        if (!changedIds.isEmpty()) {
+            for (Object[] row : eventRepository.findCountersByIdIn(changedIds)) {
+                counterRows.put((Long) row[0], row);
+            }
+        }
+        
+        channels.forEach((eventId, channel) -> {
+            List<EventStreamUpdate.CommentChange> comments = new ArrayList<>();
+            EventStreamUpdate.CommentChange comment;
+            while ((comment = channel.comments.poll()) != null) {
+                comments.add(comment);
+            }
+            
+            EventStreamUpdate.Counters counters = null;
+            boolean deleted = false;
+            if (changedIds.contains(eventId)) {
+                Object[] row = counterRows.get(eventId);
+                if (row == null || row[7] != null) {
+                    deleted = true;
+                } else {
+                    EventStreamUpdate.Counters current = toCounters(row);
+                    if (!current.equals(channel.lastCounters)) {
+                        counters = current;
+                        channel.lastCounters = current;
+                    }
+                }
+            }
+            if (comments.isEmpty() && counters == null && !deleted) {
+                return;
+            }
+            
+            String json = jsonMapper.writeValueAsString(EventStreamUpdate.builder()
+                    .eventId(eventId)
+                    .comments(comments.isEmpty() ? null : comments)
+                    .counters(counters)
+                    .deleted(deleted ? Boolean.TRUE : null)
+                    .build());
+            Message message = new Message(SseEmitter.event()
+                    .id(Long.toString(messageId.incrementAndGet()))
+                    .name("update")
+                    .data(json, MediaType.APPLICATION_JSON)
+                    .build(), deleted);
+            channel.subscribers.values().forEach(outbox -> outbox.offer(message));
+        });
+    }
+    
+    // Comment lines keep idle connections open through proxies and reveal clients that went away
+    @Scheduled(fixedDelayString = "${events.stream.heartbeat-interval:20000}")
+    public void heartbeat() {
+        Message keepAlive = new Message(SseEmitter.event().comment("keep-alive").build(), false);
+        channels.forEach((eventId, channel) -> channel.subscribers.values().forEach(outbox -> outbox.offer(keepAlive)));
+    }
+    
+    private boolean send(Long eventId, SseEmitter emitter, Set<ResponseBodyEmitter.DataWithMediaType> message) {
+        try {
+            emitter.send(message);
+            return true;
+        } catch (IOException | IllegalStateException ex) {
+            unsubscribe(eventId, emitter);
+            emitter.completeWithError(ex);
+            return false;
+        }
+    }
+    
+    private void unsubscribe(Long eventId, SseEmitter emitter) {
+        channels.computeIfPresent(eventId, (id, channel) -> {
+            if (channel.subscribers.remove(emitter) != null) {
+                subscriberCount.decrementAndGet();
+            }
+            return channel.subscribers.isEmpty() ? null : channel;
+        });
+    }
+    
+    // Row of EventRepository.findCountersByIdIn
+    private static EventStreamUpdate.Counters toCounters(Object[] row) {
+        Long ratingCount = (Long) row[5];
+        Long ratingSum = (Long) row[6];
+        return EventStreamUpdate.Counters.builder()
+                .status((EventStatus) row[1])
+                .participantCount((Long) row[2])
+                .commentCount((Long) row[3])
+                .favoriteCount((Long) row[4])
+                .ratingCount(ratingCount)
+                .averageRating(ratingCount > 0 ? (double) ratingSum / ratingCount : null)
+                .build();
+    }
+}
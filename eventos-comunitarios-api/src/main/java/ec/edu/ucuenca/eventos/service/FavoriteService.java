@@ -1,16 +1,19 @@
 package ec.edu.ucuenca.eventos.service;
 
+import ec.edu.ucuenca.eventos.dto.CursorPage;
 import ec.edu.ucuenca.eventos.dto.EventResponse;
-import ec.edu.ucuenca.eventos.exception.BadRequestException;
+import ec.edu.ucuenca.eventos.dto.EventSummary;
 import ec.edu.ucuenca.eventos.exception.ResourceNotFoundException;
 import ec.edu.ucuenca.eventos.model.Event;
 import ec.edu.ucuenca.eventos.model.Favorite;
-import ec.edu.ucuenca.eventos.model.User;
-import ec.edu.ucuenca.eventos.repository.*;
+import ec.edu.ucuenca.eventos.repository.FavoriteRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -19,96 +22,95 @@ import java.util.stream.Collectors;
 public class FavoriteService {
     
     private final FavoriteRepository favoriteRepository;
-    private final EventRepository eventRepository;
-    private final UserRepository userRepository;
-    private final ParticipantRepository participantRepository;
-    private final CommentRepository commentRepository;
-    private final RatingRepository ratingRepository;
+    private final EventResponseAssembler eventResponseAssembler;
+    private final ApplicationEventPublisher eventPublisher;
     
+    // Both toggles are single statements and idempotent: a double tap leaves the favorite
+    // and its counter as the first tap did
     @Transactional
     public void addFavorite(Long userId, Long eventId) {
-        Event event = eventRepository.findByIdAndDeletedAtIsNull(eventId)
-                .orElseThrow(() -> new ResourceNotFoundException("Event not found"));
-        
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        
-        // Check if already favorited
-        if (favoriteRepository.existsByEventIdAndUserId(eventId, userId)) {
-            throw new BadRequestException("Event already in favorites");
+        Object[] result = favoriteRepository.addIfAbsent(eventId, userId).get(0);
+        if (((Number) result[0]).longValue() == 0) {
+            throw new ResourceNotFoundException("Event not found");
         }
         
-        Favorite favorite = Favorite.builder()
-                .event(event)
-                .user(user)
-                .build();
-        
-        favoriteRepository.save(favorite);
+        if (((Number) result[1]).longValue() > 0) {
+            eventPublisher.publishEvent(new EventChanged(eventId));
+            eventPublisher.publishEvent(new MembershipChanged(userId));
+            eventPublisher.publishEvent(new EventEngagement(eventId, EventEngagement.Type.FAVORITE));
+        }
     }
     
     @Transactional
     public void removeFavorite(Long userId, Long eventId) {
-        if (!favoriteRepository.existsByEventIdAndUserId(eventId, userId)) {
-            throw new ResourceNotFoundException("Favorite not found");
+        if (favoriteRepository.removeIfPresent(eventId, userId) > 0) {
+            eventPublisher.publishEvent(new EventChanged(eventId));
+            eventPublisher.publishEvent(new MembershipChanged(userId));
         }
-        
-        favoriteRepository.deleteByEventIdAndUserId(eventId, userId);
     }
     
     @Transactional(readOnly = true)
-    public List<EventResponse> getUserFavorites(Long userId) {
-        List<Event> favoriteEvents = favoriteRepository.findFavoriteEventsByUserId(userId);
+    public CursorPage<EventResponse> getUserFavorites(Long userId, String cursor, Integer limit) {
+        PageCursor before = PageCursor.decodeDescending(cursor);
+        int pageSize = PageCursor.normalizeLimit(limit);
+        List<Favorite> favorites = favoriteRepository.findPageByUserId(
+                userId,
+                before.sortDate(),
+                before.id(),
+                Limit.of(pageSize + 1)
+        );
         
-        return favoriteEvents.stream()
-                .map(event -> mapToEventResponse(event, userId))
+        // One extra row was fetched to know whether another page follows
+        boolean hasMore = favorites.size() > pageSize;
+        List<Favorite> pageFavorites = hasMore ? favorites.subList(0, pageSize) : favorites;
+        
+        String nextCursor = null;
+        if (hasMore) {
+            Favorite last = pageFavorites.get(pageFavorites.size() - 1);
+            nextCursor = PageCursor.of(last.getCreatedAt(), last.getId()).encode();
+        }
+        
+        List<Event> favoriteEvents = pageFavorites.stream()
+                .map(Favorite::getEvent)
                 .collect(Collectors.toList());
+        
+        return CursorPage.<EventResponse>builder()
+                .items(eventResponseAssembler.toResponses(favoriteEvents, userId))
+                .limit(pageSize)
+                .nextCursor(nextCursor)
+                .build();
     }
     
+    // Same page as summaries, built without loading any entity
     @Transactional(readOnly = true)
-    public boolean isFavorite(Long userId, Long eventId) {
-        return favoriteRepository.existsByEventIdAndUserId(eventId, userId);
-    }
-    
-    private EventResponse mapToEventResponse(Event event, Long userId) {
-        // Similar mapping as in EventService
-        Long participantCount = participantRepository.countByEventId(event.getId());
-        Long commentCount = commentRepository.countByEventId(event.getId());
-        Double averageRating = ratingRepository.getAverageRatingByEventId(event.getId());
-        Long ratingCount = ratingRepository.countByEventId(event.getId());
-        Long favoriteCount = favoriteRepository.countByEventId(event.getId());
+    public CursorPage<EventSummary> getUserFavoriteSummaries(Long userId, String cursor, Integer limit) {
+        PageCursor before = PageCursor.decodeDescending(cursor);
+        int pageSize = PageCursor.normalizeLimit(limit);
+        List<Object[]> rows = favoriteRepository.findSummaryPageByUserId(
+                userId,
+                before.sortDate(),
+                before.id(),
+                Limit.of(pageSize + 1)
+        );
+        
+        boolean hasMore = rows.size() > pageSize;
+        List<Object[]> pageRows = hasMore ? rows.subList(0, pageSize) : rows;
         
-        Boolean hasUserRegistered = participantRepository.existsByEventIdAndUserId(event.getId(), userId);
-        Boolean isFavorite = favoriteRepository.existsByEventIdAndUserId(event.getId(), userId);
-        Boolean isOrganizer = event.getOrganizer() != null && 
-                              event.getOrganizer().getId().equals(userId);
+        String nextCursor = null;
+        if (hasMore) {
+            Object[] last = pageRows.get(pageRows.size() - 1);
+            nextCursor = PageCursor.of((LocalDateTime) last[0], (Long) last[1]).encode();
+        }
         
-        return EventResponse.builder()
-                .id(event.getId())
-                .title(event.getTitle())
-                .description(event.getDescription())
-                .categoryId(event.getCategory() != null ? event.getCategory().getId() : null)
-                .categoryName(event.getCategory() != null ? event.getCategory().getName() : null)
-                .organizerId(event.getOrganizer() != null ? event.getOrganizer().getId() : null)
-                .organizerName(event.getOrganizer() != null ? event.getOrganizer().getName() : null)
-                .startDate(event.getStartDate())
-                .endDate(event.getEndDate())
-                .location(event.getLocation())
-                .latitude(event.getLatitude())
-                .longitude(event.getLongitude())
-                .maxCapacity(event.getMaxCapacity())
-                .coverImage(event.getCoverImage())
-                .visibility(event.getVisibility())
-                .status(event.getStatus())
-                .createdAt(event.getCreatedAt())
-                .updatedAt(event.getUpdatedAt())
-                .participantCount(participantCount)
-                .commentCount(commentCount)
-                .averageRating(averageRating)
-                .ratingCount(ratingCount)
-                .favoriteCount(favoriteCount)
-                .isOrganizer(isOrganizer)
-                .hasUserRegistered(hasUserRegistered)
-                .isFavorite(isFavorite)
+        return CursorPage.<EventSummary>builder()
+                .items(pageRows.stream().map(row -> (EventSummary) row[2]).collect(Collectors.toList()))
+                .limit(pageSize)
+                .nextCursor(nextCursor)
                 .build();
     }
+    
+    @Transactional(readOnly = true)
+    public boolean isFavorite(Long userId, Long eventId) {
+        return favoriteRepository.existsByEventIdAndUserId(eventId, userId);
+    }
 }
@@ -0,0 +1,9 @@
+package ec.edu.ucuenca.eventos.service;
+
+/**
+ * Published when a user registers for or leaves an event, or adds or removes
+ * a favorite, so the cached {@link UserMemberships} of that user are dropped
+ * once the transaction commits.
+ */
+public record MembershipChanged(Long userId) {
+}
@@ -0,0 +1,323 @@
+package ec.edu.ucuenca.eventos.service;
+
+import ec.edu.ucuenca.eventos.dto.CommentRequest;
+import ec.edu.ucuenca.eventos.dto.MutationBatchRequest;
+import ec.edu.ucuenca.eventos.dto.MutationBatchResponse;
+import ec.edu.ucuenca.eventos.dto.RatingRequest;
+import ec.edu.ucuenca.eventos.exception.BadRequestException;
+import ec.edu.ucuenca.eventos.exception.DuplicateResourceException;
+import ec.edu.ucuenca.eventos.exception.ResourceNotFoundException;
+import ec.edu.ucuenca.eventos.exception.ServiceUnavailableException;
+import ec.edu.ucuenca.eventos.exception.UnauthorizedException;
+import ec.edu.ucuenca.eventos.model.ClientMutation;
+import ec.edu.ucuenca.eventos.repository.ClientMutationRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the operations an offline app queued, in one transaction and through the
+ * same service methods as the single-operation endpoints. Each operation runs in a
+ * nested transaction (see {@link NestedTransactions}): a failing one is rolled back on
+ * its own, together with the events it published, and reported in its result; the
+ * others are committed together.
+ * <p>
+ * The operation ids of the whole batch are recorded up front in one statement. An id
+ * that is already recorded is not applied again, so a phone that lost the response
+ * can send the same batch again. Ids of failed operations are forgotten at the end.
+ * <p>
+ * A statement failing in the database (rather than a check in a service) can still
+ * leave the transaction rollback-only. The batch is then rolled back and applied once
+ * more, with the operations that failed so far reported as failed without running them.
+ */
+@Service
+public class MutationBatchService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MutationBatchService.class);
+    
+    // Statements an operation flushes are sent to the database in JDBC batches of this size
+    private static final int JDBC_BATCH_SIZE = 50;
+    
+    private final ClientMutationRepository clientMutationRepository;
+    private final FavoriteService favoriteService;
+    private final RatingService ratingService;
+    private final CommentService commentService;
+    private final ParticipantService participantService;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate operationTemplate;
+    private final Duration retention;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    public MutationBatchService(
+            ClientMutationRepository clientMutationRepository,
+            FavoriteService favoriteService,
+            RatingService ratingService,
+            CommentService commentService,
+            ParticipantService participantService,
+            Validator validator,
+            PlatformTransactionManager transactionManager,
+            @Value("${sync.mutations.retention:7d}") Duration retention
+    ) {
+        this.clientMutationRepository = clientMutationRepository;
+        this.favoriteService = NestedTransactions.unproxied(favoriteService);
+        this.ratingService = NestedTransactions.unproxied(ratingService);
+        this.commentService = NestedTransactions.unproxied(commentService);
+        this.participantService = NestedTransactions.unproxied(participantService);
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.operationTemplate = NestedTransactions.template(transactionManager);
+        this.retention = retention;
+    }
+    
+    public MutationBatchResponse apply(Long userId, MutationBatchRequest request) {
+        // Results of operations that failed in an attempt that had to be rolled back
+        Map<String, MutationBatchResponse.Result> failedEarlier = new HashMap<>();
+        while (true) {
+            try {
+                return transactionTemplate.execute(status -> applyBatch(userId, request, failedEarlier, status));
+            } catch (TransactionPoisoned ex) {
+                // Rolled back as a whole; applied again without the operations that failed.
+                // Each attempt adds at least one, so this ends.
+                failedEarlier.putAll(ex.failures);
+            }
+        }
+    }
+    
+    private MutationBatchResponse applyBatch(
+            Long userId,
+            MutationBatchRequest request,
+            Map<String, MutationBatchResponse.Result> failedEarlier,
+            TransactionStatus status
+    ) {
+        entityManager.unwrap(Session.class).setJdbcBatchSize(JDBC_BATCH_SIZE);
+        
+        Set<String> operationIds = request.getOperations().stream()
+                .map(MutationBatchRequest.Operation::getClientOperationId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Set<String> claimed = new HashSet<>(clientMutationRepository.claim(userId, String.join(",", operationIds)));
+        
+        // What a repeated id answers with: the stored outcome of an earlier request, or the
+        // outcome of its first occurrence in this batch
+        Map<String, MutationBatchResponse.Result> known = new HashMap<>();
+        if (claimed.size() < operationIds.size()) {
+            List<String> replayedIds = operationIds.stream()
+                    .filter(id -> !claimed.contains(id))
+                    .collect(Collectors.toList());
+            for (ClientMutation mutation : clientMutationRepository.findByUserIdAndClientOperationIdIn(userId, replayedIds)) {
+                known.put(mutation.getClientOperationId(), replayed(mutation.getClientOperationId(), mutation.getResourceId()));
+            }
+        }
+        
+        List<MutationBatchResponse.Result> results = new ArrayList<>(request.getOperations().size());
+        Map<String, MutationBatchResponse.Result> failures = new HashMap<>();
+        for (MutationBatchRequest.Operation operation : request.getOperations()) {
+            String operationId = operation.getClientOperationId();
+            MutationBatchResponse.Result result = known.get(operationId);
+            if (result == null && claimed.contains(operationId)) {
+                result = failedEarlier.get(operationId);
+                if (result == null) {
+                    result = applyNested(userId, operation);
+                    if (result.getStatus() == MutationBatchResponse.Status.FAILED) {
+                        failures.put(operationId, result);
+                        if (status.isRollbackOnly()) {
+                            throw new TransactionPoisoned(failures);
+                        }
+                    }
+                }
+                known.put(operationId, result.getStatus() == MutationBatchResponse.Status.APPLIED
+                        ? replayed(operationId, result.getResourceId())
+                        : result);
+            } else if (result == null) {
+                // Claimed by a concurrent request that then failed to apply it
+                result = failed(operationId, HttpStatus.CONFLICT, "Operation was not applied, send it again");
+            }
+            results.add(result);
+        }
+        
+        recordOutcomes(userId, results, claimed);
+        
+        return MutationBatchResponse.builder()
+                .applied(count(results, MutationBatchResponse.Status.APPLIED))
+                .replayed(count(results, MutationBatchResponse.Status.REPLAYED))
+                .failed(count(results, MutationBatchResponse.Status.FAILED))
+                .results(results)
+                .build();
+    }
+    
+    @Scheduled(fixedDelayString = "${sync.mutations.purge-interval:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        clientMutationRepository.deleteAppliedBefore(LocalDateTime.now().minus(retention));
+    }
+    
+    private MutationBatchResponse.Result applyNested(Long userId, MutationBatchRequest.Operation operation) {
+        try {
+            return NestedTransactions.run(operationTemplate, entityManager, () -> applyOperation(userId, operation));
+        } catch (RuntimeException ex) {
+            return failed(operation.getClientOperationId(), statusOf(ex), messageOf(ex));
+        }
+    }
+    
+    private MutationBatchResponse.Result applyOperation(Long userId, MutationBatchRequest.Operation operation) {
+        MutationBatchResponse.Result.ResultBuilder result = MutationBatchResponse.Result.builder()
+                .clientOperationId(operation.getClientOperationId())
+                .status(MutationBatchResponse.Status.APPLIED);
+        
+        switch (operation.getType()) {
+            case FAVORITE_ADD -> favoriteService.addFavorite(userId, requireEventId(operation));
+            case FAVORITE_REMOVE -> favoriteService.removeFavorite(userId, requireEventId(operation));
+            case RATING_SET -> result.resourceId(ratingService.createOrUpdateRating(
+                    userId,
+                    requireEventId(operation),
+                    validated(new RatingRequest(operation.getScore(), operation.getContent()))).getId());
+            case RATING_DELETE -> ratingService.deleteRatingIfPresent(userId, requireEventId(operation));
+            case COMMENT_CREATE -> result.resourceId(commentService.createComment(
+                    userId,
+                    requireEventId(operation),
+                    validated(new CommentRequest(operation.getContent()))).getId());
+            case COMMENT_UPDATE -> commentService.updateComment(
+                    userId,
+                    requireCommentId(operation),
+                    validated(new CommentRequest(operation.getContent())));
+            case COMMENT_DELETE -> commentService.deleteComment(userId, requireCommentId(operation));
+            case ATTENDANCE_REGISTER -> result.waitlistPosition(
+                    participantService.registerAttendance(userId, requireEventId(operation)));
+            case ATTENDANCE_CANCEL -> participantService.cancelAttendance(userId, requireEventId(operation));
+        }
+        return result.build();
+    }
+    
+    // One statement for the whole batch, whatever its size
+    private void recordOutcomes(Long userId, List<MutationBatchResponse.Result> results, Set<String> claimed) {
+        List<String> failedIds = new ArrayList<>();
+        List<String> createdIds = new ArrayList<>();
+        List<String> resourceIds = new ArrayList<>();
+        for (MutationBatchResponse.Result result : results) {
+            if (!claimed.contains(result.getClientOperationId())) {
+                continue;
+            }
+            if (result.getStatus() == MutationBatchResponse.Status.FAILED) {
+                failedIds.add(result.getClientOperationId());
+            } else if (result.getStatus() == MutationBatchResponse.Status.APPLIED && result.getResourceId() != null) {
+                createdIds.add(result.getClientOperationId());
+                resourceIds.add(result.getResourceId().toString());
+            }
+        }
+        
+        if (!failedIds.isEmpty() || !createdIds.isEmpty()) {
+            clientMutationRepository.recordOutcomes(
+                    userId, String.join(",", failedIds), String.join(",", createdIds), String.join(",", resourceIds));
+        }
+    }
+    
+    private <T> T validated(T request) {
+        Set<ConstraintViolation<T>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new BadRequestException(violations.iterator().next().getMessage());
+        }
+        return request;
+    }
+    
+    private static Long requireEventId(MutationBatchRequest.Operation operation) {
+        if (operation.getEventId() == null) {
+            throw new BadRequestException("Event ID is required for " + operation.getType());
+        }
+        return operation.getEventId();
+    }
+    
+    private static Long requireCommentId(MutationBatchRequest.Operation operation) {
+        if (operation.getCommentId() == null) {
+            throw new BadRequestException("Comment ID is required for " + operation.getType());
+        }
+        return operation.getCommentId();
+    }
+    
+    // Same mapping as GlobalExceptionHandler
+    private static HttpStatus statusOf(RuntimeException ex) {
+        if (ex instanceof ResourceNotFoundException) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (ex instanceof BadRequestException) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        if (ex instanceof UnauthorizedException) {
+            return HttpStatus.FORBIDDEN;
+        }
+        if (ex instanceof DuplicateResourceException || ex instanceof DataIntegrityViolationException) {
+            return HttpStatus.CONFLICT;
+        }
+        if (ex instanceof ServiceUnavailableException) {
+            return HttpStatus.SERVICE_UNAVAILABLE;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+    
+    private static String messageOf(RuntimeException ex) {
+        HttpStatus status = statusOf(ex);
+        if (status == HttpStatus.INTERNAL_SERVER_ERROR) {
+            logger.error("Offline mutation failed", ex);
+            return "An unexpected error occurred";
+        }
+        return status == HttpStatus.CONFLICT && ex instanceof DataIntegrityViolationException
+                ? "Operation conflicts with existing data"
+                : ex.getMessage();
+    }
+    
+    private static MutationBatchResponse.Result replayed(String operationId, Long resourceId) {
+        return MutationBatchResponse.Result.builder()
+                .clientOperationId(operationId)
+                .status(MutationBatchResponse.Status.REPLAYED)
+                .resourceId(resourceId)
+                .build();
+    }
+    
+    private static MutationBatchResponse.Result failed(String operationId, HttpStatus status, String message) {
+        return MutationBatchResponse.Result.builder()
+                .clientOperationId(operationId)
+                .status(MutationBatchResponse.Status.FAILED)
+                .errorStatus(status.value())
+                .message(message)
+                .build();
+    }
+    
+    private static int count(List<MutationBatchResponse.Result> results, MutationBatchResponse.Status status) {
+        return (int) results.stream().filter(result -> result.getStatus() == status).count();
+    }
+    
+    private static final class TransactionPoisoned extends RuntimeException {
+        
+        private final Map<String, MutationBatchResponse.Result> failures;
+        
+        private TransactionPoisoned(Map<String, MutationBatchResponse.Result> failures) {
+            super("Batch transaction marked rollback-only", null, false, false);
+            this.failures = failures;
+        }
+    }
+}
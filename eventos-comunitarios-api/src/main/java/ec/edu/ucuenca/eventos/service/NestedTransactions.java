@@ -0,0 +1,68 @@
+package ec.edu.ucuenca.eventos.service;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Runs the operations of a batch transaction each in a nested transaction (a
+ * savepoint), so a failing one is rolled back on its own, together with the
+ * events it published. Services are meant to be called on their targets (see
+ * {@link #unproxied}): through the proxy, a failing {@code @Transactional}
+ * method would mark the whole batch transaction rollback-only.
+ */
+final class NestedTransactions {
+    
+    private NestedTransactions() {
+    }
+    
+    static TransactionTemplate template(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+        return template;
+    }
+    
+    /**
+     * Runs the operation in a savepoint of the current transaction and flushes it there, so
+     * a failing statement is charged to this operation. On failure the persistence context is
+     * cleared, since what it loaded or changed no longer matches the database, and the
+     * after-commit listeners the operation registered are dropped; the exception is rethrown.
+     */
+    static <T> T run(TransactionTemplate template, EntityManager entityManager, Supplier<T> operation) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        try {
+            return template.execute(status -> {
+                T result = operation.get();
+                entityManager.flush();
+                return result;
+            });
+        } catch (RuntimeException ex) {
+            entityManager.clear();
+            restoreSynchronizations(synchronizations);
+            throw ex;
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    static <T> T unproxied(T bean) {
+        Object target = AopProxyUtils.getSingletonTarget(bean);
+        return target != null ? (T) target : bean;
+    }
+    
+    // Drops the synchronizations (after-commit event listeners) registered since the snapshot
+    private static void restoreSynchronizations(List<TransactionSynchronization> synchronizations) {
+        if (TransactionSynchronizationManager.getSynchronizations().size() == synchronizations.size()) {
+            return;
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        synchronizations.forEach(TransactionSynchronizationManager::registerSynchronization);
+    }
+}
@@ -0,0 +1,85 @@
+package ec.edu.ucuenca.eventos.service;
+
+import ec.edu.ucuenca.eventos.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated list: the sort value (a timestamp or a search
+ * rank) and id of the last item returned. Clients only see it as an opaque
+ * Base64 string.
+ */
+public record PageCursor(String sortValue, Long id) {
+    
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+    
+    // Positions before the first item of ascending, descending and ranked lists
+    private static final PageCursor ASCENDING_START = of(LocalDateTime.of(1, 1, 1, 0, 0), 0L);
+    private static final PageCursor DESCENDING_START = of(LocalDateTime.of(9999, 12, 31, 23, 59), Long.MAX_VALUE);
+    private static final PageCursor RANKED_START = of(Float.MAX_VALUE, Long.MAX_VALUE);
+    
+    public static PageCursor of(LocalDateTime sortValue, Long id) {
+        return new PageCursor(sortValue.toString(), id);
+    }
+    
+    public static PageCursor of(float rank, Long id) {
+        return new PageCursor(Float.toString(rank), id);
+    }
+    
+    public static PageCursor decodeAscending(String cursor) {
+        return cursor == null || cursor.isBlank() ? ASCENDING_START : decode(cursor);
+    }
+    
+    public static PageCursor decodeDescending(String cursor) {
+        return cursor == null || cursor.isBlank() ? DESCENDING_START : decode(cursor);
+    }
+    
+    public static PageCursor decodeRanked(String cursor) {
+        return cursor == null || cursor.isBlank() ? RANKED_START : decode(cursor);
+    }
+    
+    public static int normalizeLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+    
+    public LocalDateTime sortDate() {
+        try {
+            return LocalDateTime.parse(sortValue);
+        } catch (DateTimeParseException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+    
+    public float sortRank() {
+        try {
+            return Float.parseFloat(sortValue);
+        } catch (NumberFormatException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+    
+    public String encode() {
+        String raw = sortValue + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static PageCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new PageCursor(raw.substring(0, separator), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -1,34 +1,56 @@
 package ec.edu.ucuenca.eventos.service;
 
+import ec.edu.ucuenca.eventos.dto.CheckInRequest;
+import ec.edu.ucuenca.eventos.dto.CheckInResponse;
 import ec.edu.ucuenca.eventos.exception.BadRequestException;
 import ec.edu.ucuenca.eventos.exception.ResourceNotFoundException;
+import ec.edu.ucuenca.eventos.exception.UnauthorizedException;
 import ec.edu.ucuenca.eventos.model.AttendanceStatus;
 import ec.edu.ucuenca.eventos.model.Event;
 import ec.edu.ucuenca.eventos.model.Participant;
-import ec.edu.ucuenca.eventos.model.User;
 import ec.edu.ucuenca.eventos.repository.EventRepository;
 import ec.edu.ucuenca.eventos.repository.ParticipantRepository;
-import ec.edu.ucuenca.eventos.repository.UserRepository;
+import ec.edu.ucuenca.eventos.repository.WaitlistEntryRepository;
+import ec.edu.ucuenca.eventos.security.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Service
 @RequiredArgsConstructor
 public class ParticipantService {
     
     private final ParticipantRepository participantRepository;
     private final EventRepository eventRepository;
-    private final UserRepository userRepository;
+    private final WaitlistEntryRepository waitlistEntryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JwtTokenProvider tokenProvider;
     
+    /**
+     * Registers the user for the event while seats are left, and puts them on the waitlist
+     * once it is full. The seat is taken first, with a conditional update, and duplicates are
+     * rejected by the unique constraints after it (rolling the seat back), so neither check
+     * can be raced. A full event goes straight to the waitlist without a participant row.
+     *
+     * @return the position on the waitlist, or null when the user got a seat
+     */
     @Transactional
-    public void registerAttendance(Long userId, Long eventId) {
+    public Long registerAttendance(Long userId, Long eventId) {
         Event event = eventRepository.findByIdAndDeletedAtIsNull(eventId)
                 .orElseThrow(() -> new ResourceNotFoundException("Event not found"));
         
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        
         // Validate event can accept attendance
         if (!event.canAcceptAttendance()) {
             throw new BadRequestException(
@@ -36,18 +58,32 @@ public class ParticipantService {
             );
         }
         
-        // Check if user already registered
-        if (participantRepository.existsByEventIdAndUserId(eventId, userId)) {
-            throw new BadRequestException("User already registered for this event");
+        if (eventRepository.reserveSeat(eventId) == 0) {
+            // Full: the registration becomes a place in the queue. The failed update locked
+            // nothing, so a cancellation could commit and run its promotion before our entry is
+            // visible to it. Holding the row lock while queueing, then promoting, closes that gap:
+            // a later cancellation waits for this commit and sees the entry, and a seat freed
+            // before the lock goes to the head of the queue rather than staying free.
+            eventRepository.lockById(eventId);
+            if (participantRepository.existsByEventIdAndUserId(eventId, userId)) {
+                throw new BadRequestException("User already registered for this event");
+            }
+            if (waitlistEntryRepository.insertIfAbsent(eventId, userId) == 0) {
+                throw new BadRequestException("User already on the waitlist for this event");
+            }
+            promoteFromWaitlist(eventId);
+            long position = waitlistEntryRepository.findPosition(eventId, userId);
+            return position > 0 ? position : null;
         }
         
-        Participant participant = Participant.builder()
-                .event(event)
-                .user(user)
-                .attendanceStatus(AttendanceStatus.CONFIRMED)
-                .build();
+        if (participantRepository.insertIfAbsent(eventId, userId, AttendanceStatus.CONFIRMED.name()) == 0) {
+            throw new BadRequestException("User already registered for this event");
+        }
         
-        participantRepository.save(participant);
+        eventPublisher.publishEvent(new EventChanged(eventId));
+        eventPublisher.publishEvent(new MembershipChanged(userId));
+        eventPublisher.publishEvent(new EventEngagement(eventId, EventEngagement.Type.REGISTRATION));
+        return null;
     }
     
     @Transactional
@@ -55,15 +91,168 @@ public class ParticipantService {
         Participant participant = participantRepository.findByEventIdAndUserId(eventId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Attendance record not found"));
         
+        // A cancelled registration gives its seat up, going back to any other status takes one
+        // again. Under the row lock, so a free seat is not taken ahead of users already waiting.
+        AttendanceStatus previous = participant.getAttendanceStatus();
+        if (previous == AttendanceStatus.CANCELLED && status != AttendanceStatus.CANCELLED) {
+            eventRepository.lockById(eventId);
+            if (waitlistEntryRepository.existsByEventId(eventId) || eventRepository.reserveSeat(eventId) == 0) {
+                throw new BadRequestException("Event is full, cancel the attendance and register again to join the waitlist");
+            }
+        }
+        
         participant.setAttendanceStatus(status);
         participantRepository.save(participant);
+        
+        if (previous != AttendanceStatus.CANCELLED && status == AttendanceStatus.CANCELLED) {
+            eventRepository.adjustParticipantCount(eventId, -1);
+            promoteFromWaitlist(eventId);
+        }
+        if ((previous == AttendanceStatus.CANCELLED) != (status == AttendanceStatus.CANCELLED)) {
+            // Only a cancellation or its reversal moves the participant count
+            eventPublisher.publishEvent(new EventChanged(eventId));
+        }
     }
     
+    // Cancels the registration, or leaves the waitlist when the user was only waiting
     @Transactional
     public void cancelAttendance(Long userId, Long eventId) {
+        Participant participant = participantRepository.findByEventIdAndUserId(eventId, userId).orElse(null);
+        if (participant == null) {
+            if (waitlistEntryRepository.deleteByEventIdAndUserId(eventId, userId) == 0) {
+                throw new ResourceNotFoundException("Attendance record not found");
+            }
+            return;
+        }
+        
+        participantRepository.delete(participant);
+        if (participant.getAttendanceStatus() != AttendanceStatus.CANCELLED) {
+            eventRepository.adjustParticipantCount(eventId, -1);
+            promoteFromWaitlist(eventId);
+        }
+        eventPublisher.publishEvent(new EventChanged(eventId));
+        eventPublisher.publishEvent(new MembershipChanged(userId));
+    }
+    
+    /**
+     * Gives every free seat of the event to the head of its waitlist, in the transaction that
+     * freed them. Costs three statements per promoted user and one to find the queue empty
+     * or the event full. Callers must already hold the event row lock (any successful update
+     * of the row takes it, a full reserveSeat does not and needs lockById), so the seats
+     * counted here cannot be taken by a concurrent registration.
+     */
+    @Transactional
+    public void promoteFromWaitlist(Long eventId) {
+        Optional<Long> next;
+        while ((next = waitlistEntryRepository.pollNext(eventId)).isPresent()) {
+            Long userId = next.get();
+            if (participantRepository.insertIfAbsent(eventId, userId, AttendanceStatus.CONFIRMED.name()) == 1) {
+                eventRepository.adjustParticipantCount(eventId, 1);
+                eventPublisher.publishEvent(new EventChanged(eventId));
+                eventPublisher.publishEvent(new MembershipChanged(userId));
+                eventPublisher.publishEvent(new EventEngagement(eventId, EventEngagement.Type.REGISTRATION));
+            }
+        }
+    }
+    
+    // QR token for the door, valid until the event ends
+    @Transactional(readOnly = true)
+    public String getCheckInToken(Long userId, Long eventId) {
         Participant participant = participantRepository.findByEventIdAndUserId(eventId, userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Attendance record not found"));
+        if (participant.getAttendanceStatus() == AttendanceStatus.CANCELLED) {
+            throw new BadRequestException("Attendance was cancelled");
+        }
         
-        participantRepository.delete(participant);
+        Event event = participant.getEvent();
+        Date expiryDate = Date.from(event.getEndDate().atZone(ZoneId.systemDefault()).toInstant());
+        return tokenProvider.generateCheckInToken(userId, eventId, expiryDate);
+    }
+    
+    /**
+     * Marks a batch of scans as attended (or not attended) for the organizer. Tokens are
+     * verified in memory and the whole batch is applied with a single statement, so the cost
+     * per request does not grow with the batch size. Scanning someone twice is harmless:
+     * the second scan reports UNCHANGED.
+     */
+    @Transactional
+    public CheckInResponse checkIn(Long organizerId, Long eventId, CheckInRequest request) {
+        Event event = eventRepository.findByIdAndDeletedAtIsNull(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Event not found"));
+        
+        if (!event.getOrganizer().getId().equals(organizerId)) {
+            throw new UnauthorizedException("Only the event organizer can check attendees in");
+        }
+        
+        AttendanceStatus status = request.getStatus() != null ? request.getStatus() : AttendanceStatus.ATTENDED;
+        if (status != AttendanceStatus.ATTENDED && status != AttendanceStatus.NOT_ATTENDED) {
+            throw new BadRequestException("Check-in status must be ATTENDED or NOT_ATTENDED");
+        }
+        
+        List<CheckInResponse.Item> items = new ArrayList<>();
+        if (request.getUserIds() != null) {
+            for (Long userId : request.getUserIds()) {
+                items.add(CheckInResponse.Item.builder().userId(userId).build());
+            }
+        }
+        if (request.getTokens() != null) {
+            for (String token : request.getTokens()) {
+                Long userId = token != null ? tokenProvider.getUserIdFromCheckInToken(token, eventId) : null;
+                items.add(CheckInResponse.Item.builder()
+                        .userId(userId)
+                        .token(token)
+                        .result(userId == null ? CheckInResponse.Result.INVALID_TOKEN : null)
+                        .build());
+            }
+        }
+        
+        Set<Long> userIds = items.stream()
+                .map(CheckInResponse.Item::getUserId)
+                .filter(userId -> userId != null)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        
+        // user id -> outcome of the update
+        Map<Long, CheckInResponse.Result> outcomes = new HashMap<>();
+        if (!userIds.isEmpty()) {
+            String ids = userIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+            for (Object[] row : participantRepository.updateAttendanceStatuses(eventId, ids, status.name())) {
+                Long userId = ((Number) row[0]).longValue();
+                String previous = (String) row[1];
+                CheckInResponse.Result result;
+                if (Boolean.TRUE.equals(row[2])) {
+                    result = CheckInResponse.Result.UPDATED;
+                } else if (previous == null) {
+                    result = CheckInResponse.Result.NOT_REGISTERED;
+                } else if (AttendanceStatus.CANCELLED.name().equals(previous)) {
+                    result = CheckInResponse.Result.CANCELLED;
+                } else {
+                    // Had the status already, possibly set by another device a moment ago
+                    result = CheckInResponse.Result.UNCHANGED;
+                }
+                outcomes.put(userId, result);
+            }
+        }
+        
+        int updated = 0;
+        int unchanged = 0;
+        for (CheckInResponse.Item item : items) {
+            if (item.getResult() == null) {
+                item.setResult(outcomes.get(item.getUserId()));
+            }
+            if (item.getResult() == CheckInResponse.Result.UPDATED) {
+                updated++;
+            } else if (item.getResult() == CheckInResponse.Result.UNCHANGED) {
+                unchanged++;
+            }
+        }
+        
+        // No EventChanged: cancelled registrations are never updated here, and moving between
+        // the other statuses leaves the participant count, and everything else shown, as it was
+        return CheckInResponse.builder()
+                .updated(updated)
+                .unchanged(unchanged)
+                .rejected(items.size() - updated - unchanged)
+                .results(items)
+                .build();
     }
 }
@@ -0,0 +1,231 @@
+package ec.edu.ucuenca.eventos.service;
+
+import ec.edu.ucuenca.eventos.dto.EventResponse;
+import ec.edu.ucuenca.eventos.model.Event;
+import ec.edu.ucuenca.eventos.model.EventStatus;
+import ec.edu.ucuenca.eventos.model.EventVisibility;
+import ec.edu.ucuenca.eventos.repository.EventRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory copy of the public feed: PUBLIC and PUBLISHED events ordered by
+ * (startDate, id), without user flags. A snapshot is never modified. Readers
+ * page through the current one without locks or queries. Changed events are
+ * collected and applied in batches on the scheduler: the ones changed on this
+ * node (see {@link EventChanged}) and, through a check of updatedAt and
+ * countersUpdatedAt, the ones changed on other nodes. Each batch swaps in a single new version, and a
+ * periodic full rebuild repairs anything the checks could have missed.
+ */
+@Component
+@RequiredArgsConstructor
+public class PublicFeedSnapshot {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PublicFeedSnapshot.class);
+    
+    private static final Comparator<EventResponse> FEED_ORDER =
+            Comparator.comparing(EventResponse::getStartDate).thenComparing(EventResponse::getId);
+    
+    // How far behind the clock the version check reads, so a transaction that stamped the
+    // event but committed late (or on a node with a slightly different clock) is still seen
+    private static final Duration REFRESH_LAG = Duration.ofSeconds(10);
+    
+    private final EventRepository eventRepository;
+    private final EventResponseAssembler eventResponseAssembler;
+    private final EventJsonCache eventJsonCache;
+    
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final Set<Long> pendingEventIds = ConcurrentHashMap.newKeySet();
+    
+    // Guarded by this: the version check reads changes after the watermark, and skips the
+    // ones already loaded, which it keeps seeing until the watermark passes them
+    private LocalDateTime watermark;
+    private final Map<Long, LocalDateTime> loadedVersions = new HashMap<>();
+    
+    public record Snapshot(long version, List<EventResponse> events, Map<Long, EventResponse> byId,
+                           long contentHash, Instant builtAt) {
+        
+        Snapshot(long version, List<EventResponse> events) {
+            this(version, events, index(events), contentHash(events), Instant.now());
+        }
+        
+        private static Map<Long, EventResponse> index(List<EventResponse> events) {
+            Map<Long, EventResponse> byId = new HashMap<>(events.size() * 2);
+            events.forEach(event -> byId.put(event.getId(), event));
+            return Collections.unmodifiableMap(byId);
+        }
+        
+        // The event when it is in the feed, null otherwise
+        public EventResponse find(Long eventId) {
+            return byId.get(eventId);
+        }
+        
+        // Changes whenever an event enters, leaves or changes in the feed; stable across restarts
+        private static long contentHash(List<EventResponse> events) {
+            long hash = 1;
+            for (EventResponse event : events) {
+                hash = 31 * hash + Objects.hash(event.getId(), event.getUpdatedAt(), event.getParticipantCount(),
+                        event.getCommentCount(), event.getFavoriteCount(), event.getRatingCount(),
+                        event.getAverageRating());
+            }
+            return hash;
+        }
+        
+        // Position of the first event after the (startDate, id) cursor
+        public int indexAfter(LocalDateTime startDate, Long id) {
+            int low = 0;
+            int high = events.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                EventResponse event = events.get(mid);
+                int comparison = event.getStartDate().compareTo(startDate);
+                if (comparison < 0 || (comparison == 0 && event.getId() <= id)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+    
+    public Snapshot current() {
+        Snapshot snapshot = current.get();
+        return snapshot != null ? snapshot : rebuild();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${events.feed.rebuild-interval:600000}",
+            fixedDelayString = "${events.feed.rebuild-interval:600000}"
+    )
+    public synchronized Snapshot rebuild() {
+        LocalDateTime settled = LocalDateTime.now().minus(REFRESH_LAG);
+        List<EventResponse> events = eventRepository
+                .findByVisibilityAndStatusAndDeletedAtIsNull(EventVisibility.PUBLIC, EventStatus.PUBLISHED)
+                .stream()
+                .map(eventResponseAssembler::toBaseResponse)
+                .sorted(FEED_ORDER)
+                .toList();
+        
+        Snapshot previous = current.get();
+        Snapshot snapshot = new Snapshot(previous != null ? previous.version() + 1 : 1, events);
+        current.set(snapshot);
+        eventJsonCache.retainEvents(snapshot.byId().keySet());
+        watermark = settled;
+        loadedVersions.clear();
+        logger.info("Public feed snapshot v{} built with {} events", snapshot.version(), events.size());
+        return snapshot;
+    }
+    
+    // Only records the event: the batch is applied by refresh, off the request thread
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEventChanged(EventChanged change) {
+        pendingEventIds.add(change.eventId());
+    }
+    
+    /**
+     * Applies the events changed since the last run in one batch: the ones recorded by
+     * {@link #onEventChanged} plus the ones edited or with counters changed after the
+     * watermark, which covers changes made on other nodes. Costs one index range query on
+     * each of updated_at and counters_updated_at, one load of the changed events and one
+     * copy of the feed per batch, however many changes it holds.
+     */
+    @Scheduled(
+            initialDelayString = "${events.feed.refresh-interval:1000}",
+            fixedDelayString = "${events.feed.refresh-interval:1000}"
+    )
+    @Transactional(readOnly = true)
+    public synchronized void refresh() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            // Not built yet, the first read will load the committed state
+            return;
+        }
+        
+        Set<Long> eventIds = new HashSet<>();
+        for (Iterator<Long> pending = pendingEventIds.iterator(); pending.hasNext(); ) {
+            eventIds.add(pending.next());
+            pending.remove();
+        }
+        
+        LocalDateTime settled = LocalDateTime.now().minus(REFRESH_LAG);
+        for (Object[] row : eventRepository.findVersionsChangedAfter(watermark)) {
+            Long eventId = (Long) row[0];
+            LocalDateTime version = versionOf((LocalDateTime) row[1], (LocalDateTime) row[2]);
+            EventResponse inFeed = snapshot.find(eventId);
+            LocalDateTime inFeedVersion = inFeed != null
+                    ? versionOf(inFeed.getUpdatedAt(), inFeed.getCountersUpdatedAt())
+                    : null;
+            if (!version.equals(loadedVersions.get(eventId)) && !version.equals(inFeedVersion)) {
+                eventIds.add(eventId);
+            }
+        }
+        if (settled.isAfter(watermark)) {
+            watermark = settled;
+            loadedVersions.values().removeIf(version -> !version.isAfter(settled));
+        }
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        
+        List<EventResponse> changed = new ArrayList<>();
+        for (Event event : eventRepository.findByIdIn(eventIds)) {
+            LocalDateTime version = versionOf(event.getUpdatedAt(), event.getCountersUpdatedAt());
+            if (version.isAfter(watermark)) {
+                loadedVersions.put(event.getId(), version);
+            }
+            if (event.isPublic() && event.isPublished() && !event.isDeleted()) {
+                changed.add(eventResponseAssembler.toBaseResponse(event));
+            }
+        }
+        changed.sort(FEED_ORDER);
+        
+        // Merge the sorted changes into the feed without the old version of those events
+        List<EventResponse> events = new ArrayList<>(snapshot.events().size() + changed.size());
+        int next = 0;
+        for (EventResponse event : snapshot.events()) {
+            if (eventIds.contains(event.getId())) {
+                continue;
+            }
+            while (next < changed.size() && FEED_ORDER.compare(changed.get(next), event) < 0) {
+                events.add(changed.get(next++));
+            }
+            events.add(event);
+        }
+        events.addAll(changed.subList(next, changed.size()));
+        
+        Snapshot refreshed = new Snapshot(snapshot.version() + 1, Collections.unmodifiableList(events));
+        current.set(refreshed);
+        eventJsonCache.retainEvents(refreshed.byId().keySet());
+        logger.debug("Public feed snapshot v{} applied {} changed events", refreshed.version(), eventIds.size());
+    }
+    
+    // Latest change of the event, an edit or a counter update
+    private static LocalDateTime versionOf(LocalDateTime updatedAt, LocalDateTime countersUpdatedAt) {
+        return countersUpdatedAt != null && countersUpdatedAt.isAfter(updatedAt) ? countersUpdatedAt : updatedAt;
+    }
+}
@@ -2,18 +2,19 @@ package ec.edu.ucuenca.eventos.service;
 
 import ec.edu.ucuenca.eventos.dto.RatingRequest;
 import ec.edu.ucuenca.eventos.dto.RatingResponse;
-import ec.edu.ucuenca.eventos.exception.BadRequestException;
+import ec.edu.ucuenca.eventos.dto.RatingSummaryResponse;
 import ec.edu.ucuenca.eventos.exception.ResourceNotFoundException;
 import ec.edu.ucuenca.eventos.model.Event;
 import ec.edu.ucuenca.eventos.model.Rating;
-import ec.edu.ucuenca.eventos.model.User;
 import ec.edu.ucuenca.eventos.repository.EventRepository;
 import ec.edu.ucuenca.eventos.repository.RatingRepository;
-import ec.edu.ucuenca.eventos.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,44 +24,52 @@ public class RatingService {
     
     private final RatingRepository ratingRepository;
     private final EventRepository eventRepository;
-    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public RatingResponse createOrUpdateRating(Long userId, Long eventId, RatingRequest request) {
-        Event event = eventRepository.findByIdAndDeletedAtIsNull(eventId)
-                .orElseThrow(() -> new ResourceNotFoundException("Event not found"));
-        
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        
-        // Check if rating already exists
-        Rating rating = ratingRepository.findByEventIdAndUserId(eventId, userId)
-                .orElse(null);
+        Object[] row = upsertRating(userId, eventId, request);
+        if (row[0] == null) {
+            // First rating raced with a double tap that created it; now there is a row to update
+            row = upsertRating(userId, eventId, request);
+        }
         
-        if (rating != null) {
-            // Update existing rating
-            rating.setScore(request.getScore());
-            rating.setComment(request.getComment());
-        } else {
-            // Create new rating
-            rating = Rating.builder()
-                    .event(event)
-                    .user(user)
-                    .score(request.getScore())
-                    .comment(request.getComment())
-                    .build();
+        // The event's rating stats were moved by the same statement
+        eventPublisher.publishEvent(new EventChanged(eventId));
+        if (row[2] == null) {
+            // Changing a score is not new interest in the event
+            eventPublisher.publishEvent(new EventEngagement(eventId, EventEngagement.Type.RATING));
         }
         
-        Rating savedRating = ratingRepository.save(rating);
-        return mapToRatingResponse(savedRating);
+        return RatingResponse.builder()
+                .id(((Number) row[0]).longValue())
+                .eventId(eventId)
+                .userId(userId)
+                .userName((String) row[3])
+                .score(request.getScore())
+                .comment(request.getComment())
+                .createdAt((LocalDateTime) row[1])
+                .build();
     }
     
     @Transactional
     public void deleteRating(Long userId, Long eventId) {
-        Rating rating = ratingRepository.findByEventIdAndUserId(eventId, userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Rating not found"));
+        if (!deleteRatingIfPresent(userId, eventId)) {
+            throw new ResourceNotFoundException("Rating not found");
+        }
+    }
+    
+    // For offline batches, where deleting a rating that is already gone is not an error.
+    // Returns false when there was none.
+    @Transactional
+    public boolean deleteRatingIfPresent(Long userId, Long eventId) {
+        if (ratingRepository.deleteReturningScore(eventId, userId).isEmpty()) {
+            return false;
+        }
         
-        ratingRepository.delete(rating);
+        // The event's rating stats were moved by the same statement
+        eventPublisher.publishEvent(new EventChanged(eventId));
+        return true;
     }
     
     @Transactional(readOnly = true)
@@ -74,10 +83,45 @@ public class RatingService {
     
     @Transactional(readOnly = true)
     public Double getAverageRating(Long eventId) {
-        Double average = ratingRepository.getAverageRatingByEventId(eventId);
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new ResourceNotFoundException("Event not found"));
+        Double average = event.getAverageRating();
         return average != null ? average : 0.0;
     }
     
+    // Read from the aggregate kept on the event row, whatever the number of ratings
+    @Transactional(readOnly = true)
+    public RatingSummaryResponse getRatingSummary(Long eventId) {
+        Object[] row = eventRepository.findRatingStatsById(eventId).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Event not found"));
+        
+        long ratingCount = (Long) row[0];
+        long ratingSum = (Long) row[1];
+        List<RatingSummaryResponse.ScoreBucket> distribution = new ArrayList<>(5);
+        for (int score = 1; score <= 5; score++) {
+            long count = (Long) row[score + 1];
+            distribution.add(RatingSummaryResponse.ScoreBucket.builder()
+                    .score(score)
+                    .count(count)
+                    .percentage(ratingCount > 0 ? Math.round(count * 1000.0 / ratingCount) / 10.0 : 0.0)
+                    .build());
+        }
+        
+        return RatingSummaryResponse.builder()
+                .eventId(eventId)
+                .ratingCount(ratingCount)
+                .averageRating(ratingCount > 0 ? (double) ratingSum / ratingCount : null)
+                .distribution(distribution)
+                .build();
+    }
+    
+    private Object[] upsertRating(Long userId, Long eventId, RatingRequest request) {
+        return ratingRepository.upsert(eventId, userId, request.getScore(), request.getComment()).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Event not found"));
+    }
+    
     private RatingResponse mapToRatingResponse(Rating rating) {
         return RatingResponse.builder()
                 .id(rating.getId())
@@ -0,0 +1,352 @@
+package ec.edu.ucuenca.eventos.service;
+
+import ec.edu.ucuenca.eventos.dto.RegistrationTicketResponse;
+import ec.edu.ucuenca.eventos.exception.BadRequestException;
+import ec.edu.ucuenca.eventos.exception.ResourceNotFoundException;
+import ec.edu.ucuenca.eventos.exception.ServiceUnavailableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for attendance registration. A request only puts a ticket
+ * on the bounded queue of its event; a fixed number of worker threads register
+ * the queued users, a batch of one event at a time, round robin between events.
+ * A burst on a hot event therefore uses at most that many database connections
+ * and the rest of the API keeps its share of the pool. When a queue is full the
+ * request is turned away with a Retry-After instead of piling up.
+ * <p>
+ * Each batch is registered in one transaction, every ticket in a nested one
+ * (see {@link NestedTransactions}), so a duplicate or a full event fails only
+ * its own ticket. Results are handed out after the commit. If the batch as a
+ * whole cannot commit, its tickets are registered again one transaction each.
+ * <p>
+ * Queues and tickets live in this node's memory: a ticket can only be polled
+ * on the node that issued it, so with more than one node the load balancer
+ * must keep a user on the same node (sticky sessions). Seats stay consistent
+ * across nodes because registration itself is atomic in the database.
+ */
+@Component
+public class RegistrationWaitingRoom {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RegistrationWaitingRoom.class);
+    
+    // How long finished tickets can still be polled
+    private static final Duration TICKET_RETENTION = Duration.ofMinutes(10);
+    private static final long RETRY_AFTER_SECONDS = 5;
+    
+    private final ParticipantService participantService;
+    private final ParticipantService participantServiceTarget;
+    private final TransactionTemplate batchTemplate;
+    private final TransactionTemplate ticketTemplate;
+    private final int workerCount;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final Duration maxWait;
+    
+    private final ConcurrentMap<Long, EventQueue> queues = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Ticket> tickets = new ConcurrentHashMap<>();
+    
+    // Queued ticket of each (event, user), so retries while waiting get the same ticket
+    private final ConcurrentMap<String, Ticket> pendingByUser = new ConcurrentHashMap<>();
+    
+    // Events with queued tickets, each present at most once
+    private final BlockingQueue<EventQueue> ready = new LinkedBlockingQueue<>();
+    
+    private ExecutorService workers;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    public RegistrationWaitingRoom(
+            ParticipantService participantService,
+            PlatformTransactionManager transactionManager,
+            @Value("${registration.waiting-room.workers:2}") int workerCount,
+            @Value("${registration.waiting-room.queue-capacity:5000}") int queueCapacity,
+            @Value("${registration.waiting-room.batch-size:50}") int batchSize,
+            @Value("${registration.waiting-room.max-wait:2s}") Duration maxWait
+    ) {
+        this.participantService = participantService;
+        this.participantServiceTarget = NestedTransactions.unproxied(participantService);
+        this.batchTemplate = new TransactionTemplate(transactionManager);
+        this.ticketTemplate = NestedTransactions.template(transactionManager);
+        this.workerCount = workerCount;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.maxWait = maxWait;
+    }
+    
+    /**
+     * A registration waiting for a worker. The result is the waitlist position, or null
+     * when the user got a seat; it completes exceptionally when the registration failed.
+     */
+    public static final class Ticket {
+        
+        private final String id = UUID.randomUUID().toString();
+        private final Long eventId;
+        private final Long userId;
+        private final long sequence;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+        private volatile Instant completedAt;
+        
+        private Ticket(Long eventId, Long userId, long sequence) {
+            this.eventId = eventId;
+            this.userId = userId;
+            this.sequence = sequence;
+        }
+        
+        public String getId() {
+            return id;
+        }
+        
+        public CompletableFuture<Long> getResult() {
+            return result;
+        }
+    }
+    
+    // What registering a ticket came to: the waitlist position (null for a seat), or the failure
+    private record Outcome(Long waitlistPosition, RuntimeException failure) {
+    }
+    
+    private static final class EventQueue {
+        
+        private final BlockingQueue<Ticket> tickets;
+        private final AtomicLong issued = new AtomicLong();
+        private final AtomicLong served = new AtomicLong();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        
+        // Set, under the queue's lock, once it is no longer in queues
+        private boolean retired;
+        
+        private EventQueue(int capacity) {
+            this.tickets = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+    
+    @PostConstruct
+    void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "registration-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            workers.submit(this::work);
+        }
+    }
+    
+    @PreDestroy
+    void stop() {
+        workers.shutdownNow();
+    }
+    
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+    
+    /**
+     * Queues a ticket for the user, or returns the one they already have queued. Submits for
+     * an event are serialized on its queue, so two concurrent requests of the same user get
+     * the same ticket, and a queue dropped by {@link #dropExpiredTickets} meanwhile is looked
+     * up again rather than used.
+     */
+    public Ticket submit(Long userId, Long eventId) {
+        String userKey = eventId + ":" + userId;
+        while (true) {
+            Ticket pending = pendingByUser.get(userKey);
+            if (pending != null) {
+                return pending;
+            }
+            
+            EventQueue queue = queues.computeIfAbsent(eventId, id -> new EventQueue(queueCapacity));
+            Ticket ticket;
+            synchronized (queue) {
+                if (queue.retired) {
+                    continue;
+                }
+                pending = pendingByUser.get(userKey);
+                if (pending != null) {
+                    return pending;
+                }
+                
+                // Registered before it is offered, so a worker that finishes it right away
+                // finds it to remove
+                ticket = new Ticket(eventId, userId, queue.issued.get() + 1);
+                tickets.put(ticket.id, ticket);
+                pendingByUser.put(userKey, ticket);
+                if (!queue.tickets.offer(ticket)) {
+                    tickets.remove(ticket.id);
+                    pendingByUser.remove(userKey, ticket);
+                    throw new ServiceUnavailableException(
+                            "Too many registrations for this event right now, try again shortly", RETRY_AFTER_SECONDS);
+                }
+                queue.issued.incrementAndGet();
+            }
+            
+            if (queue.scheduled.compareAndSet(false, true)) {
+                ready.add(queue);
+            }
+            return ticket;
+        }
+    }
+    
+    public RegistrationTicketResponse getTicket(String ticketId, Long eventId, Long userId) {
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null || !ticket.eventId.equals(eventId) || !ticket.userId.equals(userId)) {
+            throw new ResourceNotFoundException("Registration ticket not found");
+        }
+        return toResponse(ticket);
+    }
+    
+    public RegistrationTicketResponse toResponse(Ticket ticket) {
+        RegistrationTicketResponse.RegistrationTicketResponseBuilder response = RegistrationTicketResponse.builder()
+                .ticketId(ticket.id)
+                .eventId(ticket.eventId);
+        
+        if (!ticket.result.isDone()) {
+            EventQueue queue = queues.get(ticket.eventId);
+            long served = queue != null ? queue.served.get() : 0;
+            return response
+                    .status(RegistrationTicketResponse.Status.QUEUED)
+                    .queuePosition(Math.max(1, ticket.sequence - served))
+                    .build();
+        }
+        try {
+            Long waitlistPosition = ticket.result.join();
+            return response
+                    .status(waitlistPosition != null
+                            ? RegistrationTicketResponse.Status.WAITLISTED
+                            : RegistrationTicketResponse.Status.REGISTERED)
+                    .waitlistPosition(waitlistPosition)
+                    .build();
+        } catch (RuntimeException ex) {
+            Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            return response
+                    .status(RegistrationTicketResponse.Status.REJECTED)
+                    .message(cause.getMessage())
+                    .build();
+        }
+    }
+    
+    @Scheduled(fixedDelay = 60_000)
+    public void dropExpiredTickets() {
+        Instant expiry = Instant.now().minus(TICKET_RETENTION);
+        tickets.values().removeIf(ticket -> ticket.completedAt != null && ticket.completedAt.isBefore(expiry));
+        queues.forEach((eventId, queue) -> {
+            // Under the lock submit offers with, so no ticket can be added between the check and
+            // the removal; a submit that already looked the queue up sees it retired
+            synchronized (queue) {
+                if (queue.tickets.isEmpty() && !queue.scheduled.get() && queues.remove(eventId, queue)) {
+                    queue.retired = true;
+                }
+            }
+        });
+    }
+    
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            EventQueue queue;
+            try {
+                queue = ready.take();
+            } catch (InterruptedException ex) {
+                return;
+            }
+            
+            List<Ticket> batch = new ArrayList<>(batchSize);
+            queue.tickets.drainTo(batch, batchSize);
+            if (!batch.isEmpty()) {
+                register(batch);
+                queue.served.addAndGet(batch.size());
+            }
+            
+            // Back to the end of the line while tickets are left, so other events get their turn.
+            // A ticket offered after the last poll sees the flag still set and relies on this check.
+            queue.scheduled.set(false);
+            if (!queue.tickets.isEmpty() && queue.scheduled.compareAndSet(false, true)) {
+                ready.add(queue);
+            }
+        }
+    }
+    
+    // One transaction for the batch, one savepoint per ticket
+    private void register(List<Ticket> batch) {
+        List<Outcome> outcomes = new ArrayList<>(batch.size());
+        try {
+            batchTemplate.executeWithoutResult(status -> {
+                for (Ticket ticket : batch) {
+                    try {
+                        outcomes.add(new Outcome(NestedTransactions.run(ticketTemplate, entityManager,
+                                () -> participantServiceTarget.registerAttendance(ticket.userId, ticket.eventId)),
+                                null));
+                    } catch (RuntimeException ex) {
+                        outcomes.add(new Outcome(null, ex));
+                        if (status.isRollbackOnly()) {
+                            throw ex;
+                        }
+                    }
+                }
+            });
+        } catch (RuntimeException ex) {
+            logger.warn("Registration batch of {} tickets for event {} rolled back, registering them one by one",
+                    batch.size(), batch.get(0).eventId, ex);
+            batch.forEach(this::process);
+            return;
+        }
+        
+        for (int i = 0; i < batch.size(); i++) {
+            complete(batch.get(i), outcomes.get(i));
+        }
+    }
+    
+    // Registers a ticket in a transaction of its own
+    private void process(Ticket ticket) {
+        Outcome outcome;
+        try {
+            outcome = new Outcome(participantService.registerAttendance(ticket.userId, ticket.eventId), null);
+        } catch (RuntimeException ex) {
+            outcome = new Outcome(null, ex);
+        }
+        complete(ticket, outcome);
+    }
+    
+    private void complete(Ticket ticket, Outcome outcome) {
+        RuntimeException failure = outcome.failure();
+        if (failure == null) {
+            ticket.result.complete(outcome.waitlistPosition());
+        } else {
+            // Full events and duplicates are expected outcomes, anything else is worth a log line
+            if (!(failure instanceof ResourceNotFoundException) && !(failure instanceof BadRequestException)) {
+                logger.error("Registration of user {} for event {} failed", ticket.userId, ticket.eventId, failure);
+            }
+            ticket.result.completeExceptionally(failure);
+        }
+        ticket.completedAt = Instant.now();
+        pendingByUser.remove(ticket.eventId + ":" + ticket.userId, ticket);
+    }
+}
@@ -0,0 +1,99 @@
+package ec.edu.ucuenca.eventos.service;
+
+import ec.edu.ucuenca.eventos.repository.EventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Validators (strong ETag and Last-Modified) for conditional GETs of events
+ * and comments. They are computed from data that is cheap to read, namely
+ * the feed snapshot, an event's updatedAt and counters, and the comment
+ * count and last comment change kept on the event row, so a 304 can be sent
+ * before any entity is mapped or serialized. Responses carry user-specific
+ * flags, so the caller's flags are part of every ETag.
+ */
+@Component
+@RequiredArgsConstructor
+public class ResourceVersions {
+    
+    private final PublicFeedSnapshot publicFeedSnapshot;
+    private final UserMemberships userMemberships;
+    private final EventRepository eventRepository;
+    
+    public record ResourceVersion(String etag, long lastModified) {
+    }
+    
+    public ResourceVersion publicFeed(Long userId) {
+        PublicFeedSnapshot.Snapshot snapshot = publicFeedSnapshot.current();
+        Instant lastModified = snapshot.builtAt();
+        String userPart = "anonymous";
+        if (userId != null) {
+            UserMemberships.Memberships memberships = userMemberships.forUser(userId);
+            userPart = userId + ":" + memberships.fingerprint();
+            if (memberships.loadedAt().isAfter(lastModified)) {
+                lastModified = memberships.loadedAt();
+            }
+        }
+        return new ResourceVersion(etag("feed", snapshot.contentHash(), userPart), lastModified.toEpochMilli());
+    }
+    
+    // Null when the event does not exist, so the regular read reports it
+    public ResourceVersion event(Long eventId, Long userId) {
+        List<Object[]> rows = eventRepository.findVersionById(eventId);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        LocalDateTime updatedAt = (LocalDateTime) row[0];
+        LocalDateTime countersUpdatedAt = (LocalDateTime) row[6];
+        LocalDateTime lastModified = countersUpdatedAt != null && countersUpdatedAt.isAfter(updatedAt)
+                ? countersUpdatedAt
+                : updatedAt;
+        
+        String userPart = "anonymous";
+        if (userId != null) {
+            UserMemberships.Memberships memberships = userMemberships.forUser(userId);
+            userPart = userId + ":" + memberships.isRegistered(eventId) + ":" + memberships.isFavorite(eventId);
+        }
+        return new ResourceVersion(
+                etag("event", eventId, updatedAt, row[1], row[2], row[3], row[4], row[5], userPart),
+                toEpochMilli(lastModified)
+        );
+    }
+    
+    // Version of one page of the event's comments, identified by its cursor and limit
+    public ResourceVersion eventComments(Long eventId, Long userId, String cursor, Integer limit) {
+        List<Object[]> rows = eventRepository.findCommentsVersionById(eventId);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        LocalDateTime commentsUpdatedAt = (LocalDateTime) row[1];
+        LocalDateTime lastModified = commentsUpdatedAt != null ? commentsUpdatedAt : (LocalDateTime) row[2];
+        
+        return new ResourceVersion(
+                etag("comments", eventId, row[0], commentsUpdatedAt, userId != null ? userId : "anonymous",
+                        cursor, limit),
+                toEpochMilli(lastModified)
+        );
+    }
+    
+    private static String etag(Object... parts) {
+        StringBuilder value = new StringBuilder();
+        for (Object part : parts) {
+            value.append(part).append('|');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(value.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+    
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
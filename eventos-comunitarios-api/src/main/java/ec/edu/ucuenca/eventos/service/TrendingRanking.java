@@ -0,0 +1,210 @@
+package ec.edu.ucuenca.eventos.service;
+
+import ec.edu.ucuenca.eventos.dto.EventResponse;
+import ec.edu.ucuenca.eventos.model.EventStatus;
+import ec.edu.ucuenca.eventos.model.EventVisibility;
+import ec.edu.ucuenca.eventos.repository.EventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Public events ranked by recent engagement, overall and per category. Each
+ * registration, favorite, rating and comment adds its weight to the event's
+ * score, and that contribution halves every half-life.
+ * <p>
+ * Scores are kept as of a fixed base time: a signal at time t adds
+ * {@code weight * exp((t - base) / meanLife)}. Decay multiplies every score by
+ * the same factor, so the order never changes between signals and nothing has
+ * to be rescored as time passes; a signal only moves its own event in the
+ * skip lists. Reading the top events walks the head of one list and takes
+ * their data from {@link PublicFeedSnapshot}, without touching the database.
+ * <p>
+ * The ranking lives in memory. It is rebuilt from the participant, favorite,
+ * rating and comment rows at startup and then periodically, which moves the
+ * base forward, drops events that stopped trending and undoes what the live
+ * signals miss, such as cancelled registrations or removed favorites.
+ */
+@Component
+public class TrendingRanking {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TrendingRanking.class);
+    
+    private static final Comparator<Entry> RANKING_ORDER =
+            Comparator.comparingDouble(Entry::score).reversed().thenComparing(Entry::eventId);
+    
+    private final EventRepository eventRepository;
+    private final PublicFeedSnapshot publicFeedSnapshot;
+    private final Duration window;
+    private final double meanLifeSeconds;
+    
+    private volatile Ranking current = new Ranking(LocalDateTime.now());
+    
+    // Signals recorded while a rebuild runs, replayed on the rebuilt ranking
+    private List<Signal> recordedDuringRebuild;
+    
+    public TrendingRanking(
+            EventRepository eventRepository,
+            PublicFeedSnapshot publicFeedSnapshot,
+            @Value("${events.trending.half-life:24h}") Duration halfLife,
+            @Value("${events.trending.window:7d}") Duration window
+    ) {
+        this.eventRepository = eventRepository;
+        this.publicFeedSnapshot = publicFeedSnapshot;
+        this.window = window;
+        this.meanLifeSeconds = halfLife.toSeconds() / Math.log(2);
+    }
+    
+    private record Entry(Long eventId, Long categoryId, double score) {
+    }
+    
+    private record Signal(Long eventId, Long categoryId, double weight, LocalDateTime at) {
+    }
+    
+    private static final class Ranking {
+        
+        private final LocalDateTime base;
+        private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+        private final NavigableSet<Entry> all = new ConcurrentSkipListSet<>(RANKING_ORDER);
+        private final Map<Long, NavigableSet<Entry>> byCategory = new ConcurrentHashMap<>();
+        
+        private Ranking(LocalDateTime base) {
+            this.base = base;
+        }
+        
+        private NavigableSet<Entry> category(Long categoryId) {
+            return byCategory.computeIfAbsent(categoryId, id -> new ConcurrentSkipListSet<>(RANKING_ORDER));
+        }
+        
+        // Callers hold the TrendingRanking lock. A read running meanwhile may miss the event once.
+        private void add(Long eventId, Long categoryId, double score) {
+            Entry previous = entries.get(eventId);
+            if (previous != null) {
+                all.remove(previous);
+                if (previous.categoryId() != null) {
+                    category(previous.categoryId()).remove(previous);
+                }
+            }
+            
+            Entry entry = new Entry(eventId, categoryId, (previous != null ? previous.score() : 0) + score);
+            entries.put(eventId, entry);
+            all.add(entry);
+            if (categoryId != null) {
+                category(categoryId).add(entry);
+            }
+        }
+    }
+    
+    /**
+     * The highest ranked events of the category, or of all categories when it is null.
+     * Events that left the public feed, changed category or ended since their last
+     * signal are skipped; the next rebuild removes them.
+     */
+    public List<EventResponse> top(Long categoryId, int limit) {
+        Ranking ranking = current;
+        NavigableSet<Entry> entries = categoryId != null ? ranking.byCategory.get(categoryId) : ranking.all;
+        if (entries == null) {
+            return Collections.emptyList();
+        }
+        
+        PublicFeedSnapshot.Snapshot snapshot = publicFeedSnapshot.current();
+        LocalDateTime now = LocalDateTime.now();
+        List<EventResponse> events = new ArrayList<>(limit);
+        for (Entry entry : entries) {
+            EventResponse event = snapshot.find(entry.eventId());
+            if (event == null
+                    || !Objects.equals(event.getCategoryId(), entry.categoryId())
+                    || event.getEndDate().isBefore(now)) {
+                continue;
+            }
+            events.add(event);
+            if (events.size() == limit) {
+                break;
+            }
+        }
+        return events;
+    }
+    
+    @TransactionalEventListener
+    public void onEngagement(EventEngagement engagement) {
+        // Only events in the public feed can trend; the category is taken from there as well
+        EventResponse event = publicFeedSnapshot.current().find(engagement.eventId());
+        if (event == null) {
+            return;
+        }
+        record(new Signal(event.getId(), event.getCategoryId(), engagement.type().getWeight(), LocalDateTime.now()));
+    }
+    
+    private synchronized void record(Signal signal) {
+        add(current, signal);
+        if (recordedDuringRebuild != null) {
+            recordedDuringRebuild.add(signal);
+        }
+    }
+    
+    private void add(Ranking ranking, Signal signal) {
+        ranking.add(signal.eventId(), signal.categoryId(), signal.weight() * growth(ranking.base, signal.at()));
+    }
+    
+    private double growth(LocalDateTime base, LocalDateTime at) {
+        return Math.exp(Duration.between(base, at).toMillis() / 1000.0 / meanLifeSeconds);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${events.trending.rebuild-interval:3600000}",
+            fixedDelayString = "${events.trending.rebuild-interval:3600000}"
+    )
+    public void rebuild() {
+        synchronized (this) {
+            recordedDuringRebuild = new ArrayList<>();
+        }
+        
+        Ranking ranking;
+        try {
+            LocalDateTime base = LocalDateTime.now();
+            List<Object[]> rows = eventRepository.findTrendingSignals(base.minus(window), base, meanLifeSeconds,
+                    EventVisibility.PUBLIC.name(), EventStatus.PUBLISHED.name());
+            
+            ranking = new Ranking(base);
+            for (Object[] row : rows) {
+                EventEngagement.Type type = EventEngagement.Type.valueOf((String) row[2]);
+                ranking.add(((Number) row[0]).longValue(), row[1] != null ? ((Number) row[1]).longValue() : null,
+                        type.getWeight() * ((Number) row[3]).doubleValue());
+            }
+        } catch (RuntimeException ex) {
+            synchronized (this) {
+                recordedDuringRebuild = null;
+            }
+            throw ex;
+        }
+        
+        // Signals committed after the query read its rows. One committed just before may be
+        // counted twice, which the next rebuild corrects.
+        synchronized (this) {
+            for (Signal signal : recordedDuringRebuild) {
+                add(ranking, signal);
+            }
+            recordedDuringRebuild = null;
+            current = ranking;
+        }
+        logger.info("Trending ranking rebuilt with {} events", ranking.entries.size());
+    }
+}
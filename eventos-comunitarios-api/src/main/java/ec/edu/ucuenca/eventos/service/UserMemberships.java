@@ -0,0 +1,122 @@
+package ec.edu.ucuenca.eventos.service;
+
+import ec.edu.ucuenca.eventos.repository.EventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The events each user is registered for or has marked as favorite, kept as
+ * sorted {@code long[]} so every flag lookup is a binary search. A user's
+ * sets are loaded with one query on first use and dropped after any
+ * committed attendance or favorite change of that user on this node. Changes
+ * made on other nodes are seen once the sets are older than the TTL.
+ */
+@Component
+public class UserMemberships {
+    
+    // Beyond this many users the cache is cleared and refilled on demand
+    private static final int MAX_CACHED_USERS = 10_000;
+    
+    // Eviction counters, shared by the users hashing to the same stripe
+    private static final int EVICTION_STRIPES = 64;
+    
+    private static final long[] NONE = new long[0];
+    
+    private final EventRepository eventRepository;
+    private final Duration ttl;
+    
+    private final ConcurrentMap<Long, Memberships> cache = new ConcurrentHashMap<>();
+    private final AtomicLongArray evictions = new AtomicLongArray(EVICTION_STRIPES);
+    
+    public UserMemberships(
+            EventRepository eventRepository,
+            @Value("${users.memberships.ttl:30s}") Duration ttl
+    ) {
+        this.eventRepository = eventRepository;
+        this.ttl = ttl;
+    }
+    
+    public record Memberships(long[] registeredEventIds, long[] favoriteEventIds, Instant loadedAt) {
+        
+        public boolean isRegistered(long eventId) {
+            return Arrays.binarySearch(registeredEventIds, eventId) >= 0;
+        }
+        
+        public boolean isFavorite(long eventId) {
+            return Arrays.binarySearch(favoriteEventIds, eventId) >= 0;
+        }
+        
+        // Changes whenever any of the user's flags does
+        public long fingerprint() {
+            return 31L * Arrays.hashCode(registeredEventIds) + Arrays.hashCode(favoriteEventIds);
+        }
+    }
+    
+    /**
+     * The user's sets, loaded when missing or older than the TTL. The query runs outside
+     * any lock of the map, so lookups of other users never wait for it. An eviction of the
+     * user while it runs means the rows read may predate the change: the result is still
+     * returned but taken out of the cache again.
+     */
+    public Memberships forUser(Long userId) {
+        Memberships cached = cache.get(userId);
+        if (cached != null && cached.loadedAt().isAfter(Instant.now().minus(ttl))) {
+            return cached;
+        }
+        if (cache.size() >= MAX_CACHED_USERS) {
+            cache.clear();
+        }
+        
+        int stripe = stripe(userId);
+        long evictionsBefore = evictions.get(stripe);
+        Memberships loaded = load(userId);
+        boolean stored = cached != null
+                ? cache.replace(userId, cached, loaded)
+                : cache.putIfAbsent(userId, loaded) == null;
+        if (stored && evictions.get(stripe) != evictionsBefore) {
+            cache.remove(userId, loaded);
+        }
+        return loaded;
+    }
+    
+    // Also after a rollback, in case the sets were read inside the failed transaction
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onMembershipChanged(MembershipChanged change) {
+        // Counted before the removal, so a load that stores after it sees the count move
+        evictions.incrementAndGet(stripe(change.userId()));
+        cache.remove(change.userId());
+    }
+    
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (EVICTION_STRIPES - 1);
+    }
+    
+    private Memberships load(Long userId) {
+        List<Object[]> rows = eventRepository.findMembershipsByUserId(userId);
+        long[] registered = rows.stream()
+                .filter(row -> "R".equals(String.valueOf(row[1])))
+                .mapToLong(row -> ((Number) row[0]).longValue())
+                .sorted()
+                .toArray();
+        long[] favorites = rows.stream()
+                .filter(row -> "F".equals(String.valueOf(row[1])))
+                .mapToLong(row -> ((Number) row[0]).longValue())
+                .sorted()
+                .toArray();
+        return new Memberships(
+                registered.length > 0 ? registered : NONE,
+                favorites.length > 0 ? favorites : NONE,
+                Instant.now()
+        );
+    }
+}
@@ -5,19 +5,32 @@ import ec.edu.ucuenca.eventos.dto.UpdateProfileRequest;
 import ec.edu.ucuenca.eventos.exception.BadRequestException;
 import ec.edu.ucuenca.eventos.exception.DuplicateResourceException;
 import ec.edu.ucuenca.eventos.exception.ResourceNotFoundException;
+import ec.edu.ucuenca.eventos.model.EventTombstone;
 import ec.edu.ucuenca.eventos.model.User;
+import ec.edu.ucuenca.eventos.repository.CommentRepository;
+import ec.edu.ucuenca.eventos.repository.EventRepository;
+import ec.edu.ucuenca.eventos.repository.EventTombstoneRepository;
 import ec.edu.ucuenca.eventos.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class UserService {
     
     private final UserRepository userRepository;
+    private final EventRepository eventRepository;
+    private final CommentRepository commentRepository;
+    private final EventTombstoneRepository eventTombstoneRepository;
+    private final ParticipantService participantService;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
     
     public User getUserById(Long userId) {
         return userRepository.findById(userId)
@@ -34,6 +47,18 @@ public class UserService {
             throw new DuplicateResourceException("Email already in use");
         }
         
+        // Cached comment pages show the author's name, and the user's events their organizer's
+        if (!user.getName().equals(request.getName())) {
+            List<Long> commentedEventIds = commentRepository.findEventIdsByUserId(userId);
+            if (!commentedEventIds.isEmpty()) {
+                eventRepository.touchComments(commentedEventIds);
+            }
+            commentedEventIds.forEach(eventId -> eventPublisher.publishEvent(new CommentsChanged(eventId)));
+            eventRepository.touchByOrganizerId(userId);
+            eventRepository.findIdsByOrganizerId(userId)
+                    .forEach(eventId -> eventPublisher.publishEvent(new EventChanged(eventId)));
+        }
+        
         user.setName(request.getName());
         user.setEmail(request.getEmail());
         
@@ -57,6 +82,27 @@ public class UserService {
     @Transactional
     public void deleteAccount(Long userId) {
         User user = getUserById(userId);
+        
+        // The user's participations, comments, favorites and ratings go with the account,
+        // so the counters of the events they touched are recomputed afterwards
+        List<Long> touchedEventIds = eventRepository.findEventIdsWithActivityByUserId(userId);
+        List<Long> organizedEventIds = eventRepository.findIdsByOrganizerId(userId);
+        
+        // Organized events are removed with the account, so delta sync needs tombstones for them
+        LocalDateTime now = LocalDateTime.now();
+        eventTombstoneRepository.saveAll(organizedEventIds.stream()
+                .map(eventId -> EventTombstone.builder().eventId(eventId).deletedAt(now).build())
+                .toList());
         userRepository.delete(user);
+        userRepository.flush();
+        if (!touchedEventIds.isEmpty()) {
+            eventRepository.recountCounters(touchedEventIds);
+            // Seats the user held go to the waitlists of those events
+            touchedEventIds.forEach(participantService::promoteFromWaitlist);
+        }
+        touchedEventIds.forEach(eventId -> eventPublisher.publishEvent(new EventChanged(eventId)));
+        touchedEventIds.forEach(eventId -> eventPublisher.publishEvent(new CommentsChanged(eventId)));
+        organizedEventIds.forEach(eventId -> eventPublisher.publishEvent(new EventChanged(eventId)));
+        eventPublisher.publishEvent(new MembershipChanged(userId));
     }
 }
@@ -0,0 +1,134 @@
+package ec.edu.ucuenca.eventos.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Geohash encoding of coordinates. Points that share a geohash prefix lie in
+ * the same grid cell, so a B-tree index over the geohash column can find the
+ * events of a cell with a range scan.
+ */
+public final class GeoHash {
+    
+    public static final int PRECISION = 9;
+    
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    private static final double KM_PER_DEGREE = 111.32;
+    
+    private GeoHash() {
+    }
+    
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLng = -180, maxLng = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int value = 0;
+        
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLng + maxLng) / 2;
+                if (longitude >= mid) {
+                    value = (value << 1) | 1;
+                    minLng = mid;
+                } else {
+                    value = value << 1;
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    value = (value << 1) | 1;
+                    minLat = mid;
+                } else {
+                    value = value << 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(value));
+                bit = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+    
+    // Cell size in degrees: longitude takes the extra bit when 5 * precision is odd
+    public static double cellHeight(int precision) {
+        return 180.0 / (1L << (5 * precision / 2));
+    }
+    
+    public static double cellWidth(int precision) {
+        return 360.0 / (1L << ((5 * precision + 1) / 2));
+    }
+    
+    /**
+     * Prefixes of the cell containing the point and its eight neighbours, at the
+     * finest precision whose cells are at least as large as the radius. Together
+     * they cover every point within {@code radiusKm} of the given one.
+     */
+    public static Set<String> cellsAround(double latitude, double longitude, double radiusKm) {
+        double radiusLat = radiusKm / KM_PER_DEGREE;
+        double radiusLng = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(latitude)), 0.01));
+        
+        int precision = PRECISION;
+        while (precision > 1 && (cellHeight(precision) < radiusLat || cellWidth(precision) < radiusLng)) {
+            precision--;
+        }
+        
+        double height = cellHeight(precision);
+        double width = cellWidth(precision);
+        Set<String> cells = new LinkedHashSet<>();
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dx = -1; dx <= 1; dx++) {
+                double lat = Math.max(-90, Math.min(90, latitude + dy * height));
+                cells.add(encode(lat, normalizeLongitude(longitude + dx * width), precision));
+            }
+        }
+        return cells;
+    }
+    
+    /**
+     * Prefixes of the cells that cover the bounding box, at the finest precision
+     * that needs at most {@code maxCells} of them.
+     */
+    public static Set<String> cellsCovering(double minLat, double minLng, double maxLat, double maxLng, int maxCells) {
+        int precision = PRECISION;
+        while (precision > 1 && countCells(minLat, minLng, maxLat, maxLng, precision) > maxCells) {
+            precision--;
+        }
+        
+        double height = cellHeight(precision);
+        double width = cellWidth(precision);
+        long firstRow = (long) Math.floor((minLat + 90) / height);
+        long lastRow = (long) Math.floor((maxLat + 90) / height);
+        long firstColumn = (long) Math.floor((minLng + 180) / width);
+        long lastColumn = (long) Math.floor((maxLng + 180) / width);
+        
+        Set<String> cells = new LinkedHashSet<>();
+        for (long row = firstRow; row <= lastRow; row++) {
+            for (long column = firstColumn; column <= lastColumn; column++) {
+                double lat = Math.min(90, (row + 0.5) * height - 90);
+                double lng = Math.min(180, (column + 0.5) * width - 180);
+                cells.add(encode(lat, lng, precision));
+            }
+        }
+        return cells;
+    }
+    
+    private static long countCells(double minLat, double minLng, double maxLat, double maxLng, int precision) {
+        long rows = (long) Math.floor((maxLat + 90) / cellHeight(precision))
+                - (long) Math.floor((minLat + 90) / cellHeight(precision)) + 1;
+        long columns = (long) Math.floor((maxLng + 180) / cellWidth(precision))
+                - (long) Math.floor((minLng + 180) / cellWidth(precision)) + 1;
+        return rows * columns;
+    }
+    
+    private static double normalizeLongitude(double longitude) {
+        return ((longitude + 180) % 360 + 360) % 360 - 180;
+    }
+}
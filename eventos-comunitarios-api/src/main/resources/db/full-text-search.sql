@@ -0,0 +1,36 @@
+-- Full-text search over events (Spanish stemming, accent-insensitive).
+-- Idempotent: executed on every start by FullTextSearchSchemaInitializer,
+-- after Hibernate has created or updated the events table.
+
+CREATE EXTENSION IF NOT EXISTS unaccent;
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Spanish configuration that folds accents before stemming ("música" = "musica")
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_ts_config WHERE cfgname = 'es_unaccent') THEN
+        CREATE TEXT SEARCH CONFIGURATION es_unaccent (COPY = spanish);
+        ALTER TEXT SEARCH CONFIGURATION es_unaccent
+            ALTER MAPPING FOR hword, hword_part, word WITH unaccent, spanish_stem;
+    END IF;
+END
+$$;
+
+-- unaccent() is only STABLE, this wrapper can be used in index expressions
+CREATE OR REPLACE FUNCTION immutable_unaccent(text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+    AS $$ SELECT public.unaccent('public.unaccent', $1) $$;
+
+-- Title weighs more than location, location more than description. Accents are
+-- folded before parsing so words are not split on databases with a C locale.
+ALTER TABLE events ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('es_unaccent', immutable_unaccent(coalesce(title, ''))), 'A') ||
+        setweight(to_tsvector('es_unaccent', immutable_unaccent(coalesce(location, ''))), 'B') ||
+        setweight(to_tsvector('es_unaccent', immutable_unaccent(coalesce(description, ''))), 'C')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_events_search_vector ON events USING GIN (search_vector);
+
+-- Partial words ("conci" -> "Concierto") through trigrams on the folded title
+CREATE INDEX IF NOT EXISTS idx_events_title_trgm ON events USING GIN (immutable_unaccent(lower(title)) gin_trgm_ops);
@@ -0,0 +1,78 @@
+package ec.edu.ucuenca.eventos.service;
+
+import ec.edu.ucuenca.eventos.dto.MutationBatchRequest;
+import ec.edu.ucuenca.eventos.dto.MutationBatchResponse;
+import ec.edu.ucuenca.eventos.model.Event;
+import ec.edu.ucuenca.eventos.model.EventStatus;
+import ec.edu.ucuenca.eventos.model.User;
+import ec.edu.ucuenca.eventos.repository.EventRepository;
+import ec.edu.ucuenca.eventos.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class MutationBatchServiceTests {
+
+	@Autowired
+	private MutationBatchService mutationBatchService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EventRepository eventRepository;
+
+	@Test
+	void failedOperationIsRolledBackAloneAndOthersAreReplayed() {
+		User user = userRepository.save(User.builder()
+				.name("Batch tester")
+				.email(UUID.randomUUID() + "@example.com")
+				.passwordHash("hash")
+				.build());
+		Event event = eventRepository.save(Event.builder()
+				.title("Batch event")
+				.description("Batch event")
+				.startDate(LocalDateTime.now().plusDays(1))
+				.endDate(LocalDateTime.now().plusDays(2))
+				.location("Cuenca")
+				.status(EventStatus.PUBLISHED)
+				.organizer(user)
+				.build());
+
+		MutationBatchRequest request = new MutationBatchRequest(List.of(
+				operation("fav-1", MutationBatchRequest.Type.FAVORITE_ADD, event.getId(), null),
+				operation("comment-missing", MutationBatchRequest.Type.COMMENT_CREATE, Long.MAX_VALUE, "Lost"),
+				operation("comment-1", MutationBatchRequest.Type.COMMENT_CREATE, event.getId(), "Hello")));
+
+		MutationBatchResponse first = mutationBatchService.apply(user.getId(), request);
+
+		assertThat(first.getApplied()).isEqualTo(2);
+		assertThat(first.getFailed()).isEqualTo(1);
+		assertThat(first.getResults().get(1).getErrorStatus()).isEqualTo(404);
+		Event applied = eventRepository.findById(event.getId()).orElseThrow();
+		assertThat(applied.getFavoriteCount()).isEqualTo(1L);
+		assertThat(applied.getCommentCount()).isEqualTo(1L);
+
+		MutationBatchResponse second = mutationBatchService.apply(user.getId(), request);
+
+		assertThat(second.getReplayed()).isEqualTo(2);
+		assertThat(second.getFailed()).isEqualTo(1);
+		assertThat(second.getResults().get(2).getResourceId()).isEqualTo(first.getResults().get(2).getResourceId());
+		Event replayed = eventRepository.findById(event.getId()).orElseThrow();
+		assertThat(replayed.getFavoriteCount()).isEqualTo(1L);
+		assertThat(replayed.getCommentCount()).isEqualTo(1L);
+	}
+
+	private static MutationBatchRequest.Operation operation(
+			String id, MutationBatchRequest.Type type, Long eventId, String content) {
+		return new MutationBatchRequest.Operation(id, type, eventId, null, null, content);
+	}
+
+}
@@ -0,0 +1,125 @@
+package ec.edu.ucuenca.eventos.service;
+
+import ec.edu.ucuenca.eventos.model.Event;
+import ec.edu.ucuenca.eventos.model.EventStatus;
+import ec.edu.ucuenca.eventos.model.User;
+import ec.edu.ucuenca.eventos.repository.EventRepository;
+import ec.edu.ucuenca.eventos.repository.ParticipantRepository;
+import ec.edu.ucuenca.eventos.repository.UserRepository;
+import ec.edu.ucuenca.eventos.repository.WaitlistEntryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ParticipantServiceTests {
+
+	private static final int CAPACITY = 3;
+	private static final int USERS = 12;
+
+	@Autowired
+	private ParticipantService participantService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EventRepository eventRepository;
+
+	@Autowired
+	private ParticipantRepository participantRepository;
+
+	@Autowired
+	private WaitlistEntryRepository waitlistEntryRepository;
+
+	@Test
+	void concurrentRegistrationsFillTheSeatsAndQueueTheRest() throws Exception {
+		User organizer = createUser();
+		Event event = eventRepository.save(Event.builder()
+				.title("Concurrent event")
+				.description("Concurrent event")
+				.startDate(LocalDateTime.now().plusDays(1))
+				.endDate(LocalDateTime.now().plusDays(2))
+				.location("Cuenca")
+				.maxCapacity(CAPACITY)
+				.status(EventStatus.PUBLISHED)
+				.organizer(organizer)
+				.build());
+		List<User> users = new ArrayList<>();
+		for (int i = 0; i < USERS; i++) {
+			users.add(createUser());
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(USERS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Long>> results = new ArrayList<>();
+		try {
+			for (User user : users) {
+				Callable<Long> register = () -> {
+					start.await();
+					return participantService.registerAttendance(user.getId(), event.getId());
+				};
+				results.add(executor.submit(register));
+			}
+			start.countDown();
+
+			int seated = 0;
+			Set<Long> positions = new HashSet<>();
+			for (Future<Long> result : results) {
+				Long position = result.get();
+				if (position == null) {
+					seated++;
+				} else {
+					positions.add(position);
+				}
+			}
+			assertThat(seated).isEqualTo(CAPACITY);
+			assertThat(positions).hasSize(USERS - CAPACITY);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(eventRepository.findById(event.getId()).orElseThrow().getParticipantCount())
+				.isEqualTo((long) CAPACITY);
+		assertThat(participantRepository.countByEventId(event.getId())).isEqualTo((long) CAPACITY);
+
+		// A cancellation gives the seat to the head of the queue
+		User seatedUser = users.stream()
+				.filter(user -> participantRepository.existsByEventIdAndUserId(event.getId(), user.getId()))
+				.findFirst()
+				.orElseThrow();
+		User head = users.stream()
+				.filter(user -> waitlistEntryRepository.findPosition(event.getId(), user.getId()) == 1)
+				.findFirst()
+				.orElseThrow();
+		participantService.cancelAttendance(seatedUser.getId(), event.getId());
+
+		assertThat(participantRepository.existsByEventIdAndUserId(event.getId(), head.getId())).isTrue();
+		assertThat(waitlistEntryRepository.findPosition(event.getId(), head.getId())).isZero();
+		assertThat(eventRepository.findById(event.getId()).orElseThrow().getParticipantCount())
+				.isEqualTo((long) CAPACITY);
+	}
+
+	private User createUser() {
+		return userRepository.save(User.builder()
+				.name("Participant tester")
+				.email(UUID.randomUUID() + "@example.com")
+				.passwordHash("hash")
+				.build());
+	}
+
+}
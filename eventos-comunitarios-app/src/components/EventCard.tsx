@@ -8,14 +8,14 @@ import {
     ViewStyle,
 } from 'react-native';
 import { Ionicons, MaterialCommunityIcons } from '@expo/vector-icons';
-import type { Event } from '../types/models';
+import type { EventSummary } from '../types/models';
 import { colors, spacing, borderRadius, typography, shadows } from '../theme';
 import { formatDate, formatTime, getCategoryIcon } from '../utils/formatters';
 import { LinearGradient } from 'expo-linear-gradient';
 import { favoriteService } from '../services/favoriteService';
 
 interface EventCardProps {
-    event: Event;
+    event: EventSummary;
     onPress: () => void;
     style?: ViewStyle;
 }
@@ -33,6 +33,7 @@ export const API_URL = getApiUrl();
 export const STORAGE_KEYS = {
     TOKEN: '@azuevento:token',
     USER: '@azuevento:user',
+    PENDING_MUTATIONS: '@azuevento:pendingMutations',
 } as const;
 
 // API Endpoints
@@ -44,10 +45,15 @@ export const ENDPOINTS = {
     // Events
     EVENTS: '/events',
     EVENT_DETAIL: (id: number) => `/events/${id}`,
+    EVENT_STREAM: (id: number) => `/events/${id}/stream`,
     EVENT_PUBLISH: (id: number) => `/events/${id}/publish`,
     EVENT_CANCEL: (id: number) => `/events/${id}/cancel`,
     EVENT_ARCHIVE: (id: number) => `/events/${id}/archive`,
     EVENT_SEARCH: '/events/search',
+    EVENTS_NEARBY: '/events/nearby',
+    EVENTS_TRENDING: '/events/trending',
+    EVENTS_MAP: '/events/map',
+    EVENTS_CHANGES: '/events/changes',
     MY_EVENTS: '/events/my-events',
     ATTENDING_EVENTS: '/events/attending',
 
@@ -56,6 +62,8 @@ export const ENDPOINTS = {
 
     // Participants
     ATTENDANCE: (eventId: number) => `/events/${eventId}/attendance`,
+    ATTENDANCE_TICKET: (eventId: number, ticketId: string) =>
+        `/events/${eventId}/attendance/tickets/${ticketId}`,
 
     // Comments
     COMMENTS: (eventId: number) => `/events/${eventId}/comments`,
@@ -65,9 +73,13 @@ export const ENDPOINTS = {
     // Ratings
     RATINGS: (eventId: number) => `/events/${eventId}/ratings`,
     RATING_AVERAGE: (eventId: number) => `/events/${eventId}/ratings/average`,
+    RATING_SUMMARY: (eventId: number) => `/events/${eventId}/ratings/summary`,
 
     // Favorites
     FAVORITE: (eventId: number) => `/events/${eventId}/favorite`,
     MY_FAVORITES: '/users/favorites',
     IS_FAVORITE: (eventId: number) => `/events/${eventId}/favorite/status`,
+
+    // Offline changes
+    SYNC_MUTATIONS: '/sync/mutations',
 } as const;
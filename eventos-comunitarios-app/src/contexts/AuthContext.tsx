@@ -1,6 +1,7 @@
 import React, { createContext, useState, useContext, useEffect, ReactNode } from 'react';
 import AsyncStorage from '@react-native-async-storage/async-storage';
 import { authService } from '../services/authService';
+import { mutationQueue } from '../services/mutationQueue';
 import { STORAGE_KEYS } from '../constants/api';
 import type { User, AuthResponse, LoginRequest, RegisterRequest } from '../types/models';
 
@@ -30,6 +31,13 @@ export const AuthProvider: React.FC<AuthProviderProps> = ({ children }) => {
         loadStoredAuth();
     }, []);
 
+    // Send what was changed offline as soon as there is a session to send it with
+    useEffect(() => {
+        if (user) {
+            mutationQueue.flush();
+        }
+    }, [user]);
+
     const loadStoredAuth = async () => {
         try {
             const [storedToken, storedUser] = await AsyncStorage.multiGet([
@@ -115,8 +123,9 @@ export const AuthProvider: React.FC<AuthProviderProps> = ({ children }) => {
             setUser(null);
             setToken(null);
 
-            // Clear storage
+            // Clear storage, including changes queued for this account
             await AsyncStorage.multiRemove([STORAGE_KEYS.TOKEN, STORAGE_KEYS.USER]);
+            await mutationQueue.clear();
         } catch (error) {
             console.error('Sign out error:', error);
             throw error;
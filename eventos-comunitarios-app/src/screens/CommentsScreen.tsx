@@ -18,6 +18,7 @@ import { Ionicons } from '@expo/vector-icons';
 import type { MainStackParamList } from '../navigation/AppNavigator';
 import type { Comment } from '../types/models';
 import { commentService } from '../services/commentService';
+import { subscribeToEvent } from '../services/eventStream';
 import { CommentItem } from '../components/CommentItem';
 import { Loading } from '../components/Loading';
 import { useAuth } from '../contexts/AuthContext';
@@ -35,6 +36,8 @@ export const CommentsScreen: React.FC = () => {
 
     const [comments, setComments] = useState<Comment[]>([]);
     const [loading, setLoading] = useState(true);
+    const [nextCursor, setNextCursor] = useState<string | null>(null);
+    const [loadingMore, setLoadingMore] = useState(false);
     const [submitting, setSubmitting] = useState(false);
     const [newComment, setNewComment] = useState('');
     const [isInputFocused, setIsInputFocused] = useState(false);
@@ -43,10 +46,28 @@ export const CommentsScreen: React.FC = () => {
         loadComments();
     }, []);
 
+    // Comments written, edited or deleted by others while the screen is open
+    useEffect(() => {
+        return subscribeToEvent(eventId, update => {
+            if (!update.comments) return;
+            setComments(current => update.comments!.reduce((list, change) => {
+                if (change.type === 'DELETED') {
+                    return list.filter(c => c.id !== change.commentId);
+                }
+                const comment: Comment = { ...change.comment!, isOwner: change.comment!.userId === user?.id };
+                if (change.type === 'UPDATED') {
+                    return list.map(c => c.id === comment.id ? comment : c);
+                }
+                return list.some(c => c.id === comment.id) ? list : [comment, ...list];
+            }, current));
+        }, loadComments);
+    }, [eventId]);
+
     const loadComments = async () => {
         try {
-            const data = await commentService.getComments(eventId);
-            setComments(data);
+            const page = await commentService.getComments(eventId);
+            setComments(page.items);
+            setNextCursor(page.nextCursor ?? null);
         } catch (error: any) {
             console.error('Error loading comments:', error);
             Alert.alert('Error', 'No se pudieron cargar los comentarios');
@@ -55,6 +76,20 @@ export const CommentsScreen: React.FC = () => {
         }
     };
 
+    const loadMoreComments = async () => {
+        if (!nextCursor || loadingMore) return;
+        try {
+            setLoadingMore(true);
+            const page = await commentService.getComments(eventId, nextCursor);
+            setComments(current => [...current, ...page.items]);
+            setNextCursor(page.nextCursor ?? null);
+        } catch (error: any) {
+            console.error('Error loading more comments:', error);
+        } finally {
+            setLoadingMore(false);
+        }
+    };
+
     const handleAddComment = async () => {
         if (!newComment.trim()) {
             Alert.alert('Error', 'El comentario no puede estar vacío');
@@ -69,7 +104,7 @@ export const CommentsScreen: React.FC = () => {
         try {
             setSubmitting(true);
             const comment = await commentService.addComment(eventId, newComment.trim());
-            setComments([comment, ...comments]);
+            setComments(current => current.some(c => c.id === comment.id) ? current : [comment, ...current]);
             setNewComment('');
         } catch (error: any) {
             console.error('Error adding comment:', error);
@@ -82,7 +117,7 @@ export const CommentsScreen: React.FC = () => {
     const handleDeleteComment = async (commentId: number) => {
         try {
             await commentService.deleteComment(commentId);
-            setComments(comments.filter(c => c.id !== commentId));
+            setComments(current => current.filter(c => c.id !== commentId));
         } catch (error: any) {
             console.error('Error deleting comment:', error);
             Alert.alert('Error', 'No se pudo eliminar el comentario');
@@ -174,6 +209,9 @@ export const CommentsScreen: React.FC = () => {
                     )}
                     ListHeaderComponent={renderHeader}
                     ListEmptyComponent={renderEmpty}
+                    onEndReached={loadMoreComments}
+                    onEndReachedThreshold={0.5}
+                    ListFooterComponent={loadingMore ? <ActivityIndicator color={colors.primary} /> : null}
                     contentContainerStyle={[
                         styles.listContent,
                         comments.length === 0 && styles.listContentEmpty
@@ -21,6 +21,7 @@ import type { NativeStackNavigationProp } from '@react-navigation/native-stack';
 import type { ExploreStackParamList } from '../navigation/TabNavigator';
 import { eventService } from '../services/eventService';
 import { participantService } from '../services/participantService';
+import { subscribeToEvent } from '../services/eventStream';
 import { favoriteService } from '../services/favoriteService';
 import { ratingService } from '../services/ratingService';
 import { useAuth } from '../contexts/AuthContext';
@@ -54,6 +55,20 @@ export const EventDetailScreen: React.FC = () => {
         loadEventDetail();
     }, [route.params.eventId]);
 
+    // Counters and status pushed by the server while the screen is open
+    useEffect(() => {
+        return subscribeToEvent(route.params.eventId, update => {
+            if (update.deleted) {
+                Alert.alert('Evento eliminado', 'Este evento ya no está disponible');
+                navigation.goBack();
+                return;
+            }
+            if (update.counters) {
+                setEvent(current => current ? { ...current, ...update.counters } : current);
+            }
+        }, loadEventDetail);
+    }, [route.params.eventId]);
+
     const loadEventDetail = async () => {
         try {
             const [eventData, favoriteStatus] = await Promise.all([
@@ -102,8 +117,12 @@ export const EventDetailScreen: React.FC = () => {
                 await participantService.cancelAttendance(event.id);
                 Alert.alert('Éxito', 'Has cancelado tu asistencia');
             } else {
-                await participantService.registerAttendance(event.id, 'CONFIRMED');
-                Alert.alert('Éxito', '¡Te has registrado exitosamente!');
+                const waitlistPosition = await participantService.registerAttendance(event.id, 'CONFIRMED');
+                if (waitlistPosition !== null) {
+                    Alert.alert('Lista de espera', `El evento está lleno. Estás en la posición ${waitlistPosition} de la lista de espera`);
+                } else {
+                    Alert.alert('Éxito', '¡Te has registrado exitosamente!');
+                }
             }
             await loadEventDetail();
         } catch (error: any) {
@@ -16,7 +16,7 @@ import { favoriteService } from '../services/favoriteService';
 import { EventCard } from '../components/EventCard';
 import { Loading } from '../components/Loading';
 import { useAuth } from '../contexts/AuthContext';
-import type { Event } from '../types/models';
+import type { EventSummary } from '../types/models';
 import { colors, spacing, typography } from '../theme';
 
 type FavoritesScreenNavigationProp = NativeStackNavigationProp<MainStackParamList, 'Favorites'>;
@@ -24,7 +24,7 @@ type FavoritesScreenNavigationProp = NativeStackNavigationProp<MainStackParamLis
 export const FavoritesScreen: React.FC = () => {
     const { user } = useAuth();
     const navigation = useNavigation<FavoritesScreenNavigationProp>();
-    const [favorites, setFavorites] = useState<Event[]>([]);
+    const [favorites, setFavorites] = useState<EventSummary[]>([]);
     const [loading, setLoading] = useState(true);
     const [refreshing, setRefreshing] = useState(false);
 
@@ -52,7 +52,7 @@ export const FavoritesScreen: React.FC = () => {
         loadFavorites();
     };
 
-    const handleEventPress = (event: Event) => {
+    const handleEventPress = (event: EventSummary) => {
         navigation.navigate('EventDetail', { eventId: event.id });
     };
 
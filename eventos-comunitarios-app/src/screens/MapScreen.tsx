@@ -14,7 +14,7 @@ import {
     Image,
 } from 'react-native';
 import { useSafeAreaInsets } from 'react-native-safe-area-context';
-import MapView, { Marker, Callout, Polyline } from 'react-native-maps';
+import MapView, { Marker, Callout, Polyline, type Region } from 'react-native-maps';
 import { Ionicons } from '@expo/vector-icons';
 import { useNavigation, useRoute, RouteProp, useFocusEffect } from '@react-navigation/native';
 import type { NativeStackNavigationProp } from '@react-navigation/native-stack';
@@ -32,7 +32,7 @@ import {
     type RouteInfo,
     type Coordinate,
 } from '../services/routingService';
-import type { Event } from '../types/models';
+import type { Event, EventMapCluster, EventMapPin, EventMapResponse } from '../types/models';
 import { colors, spacing, typography, borderRadius, shadows } from '../theme';
 import { formatDate, formatTime, getCategoryIcon } from '../utils/formatters';
 
@@ -43,6 +43,11 @@ const DEFAULT_REGION = {
     longitudeDelta: 0.0421,
 };
 
+// Only events around the user (or the default region) are downloaded
+const NEARBY_RADIUS_KM = 25;
+const NEARBY_LIMIT = 100;
+const MAX_MAP_ZOOM = 22;
+
 type MapScreenNavigationProp = NativeStackNavigationProp<MapStackParamList, 'MapMain'>;
 
 export const MapScreen: React.FC = () => {
@@ -55,6 +60,8 @@ export const MapScreen: React.FC = () => {
     const focusEventId = route.params?.focusEventId;
 
     const [events, setEvents] = useState<Event[]>([]);
+    const [mapMarkers, setMapMarkers] = useState<EventMapResponse | null>(null);
+    const regionRef = useRef<Region>(DEFAULT_REGION);
     const [loading, setLoading] = useState(true);
     const [lastFocusedEventId, setLastFocusedEventId] = useState<number | null>(null);
     const [selectedEvent, setSelectedEvent] = useState<Event | null>(null);
@@ -85,7 +92,8 @@ export const MapScreen: React.FC = () => {
     useFocusEffect(
         useCallback(() => {
             loadEvents();
-        }, [])
+            loadMapMarkers(regionRef.current);
+        }, [userLocation])
     );
 
     useEffect(() => {
@@ -138,11 +146,14 @@ export const MapScreen: React.FC = () => {
 
     const loadEvents = async () => {
         try {
-            const data = await eventService.getAll();
-            const eventsWithLocation = data.filter(
-                (event) => event.latitude && event.longitude
-            );
-            setEvents(eventsWithLocation);
+            const center = userLocation ?? DEFAULT_REGION;
+            const data = await eventService.getNearby({
+                lat: center.latitude,
+                lng: center.longitude,
+                radiusKm: NEARBY_RADIUS_KM,
+                limit: NEARBY_LIMIT,
+            });
+            setEvents(data);
         } catch (error: any) {
             console.error('Error loading events:', error);
         } finally {
@@ -150,6 +161,42 @@ export const MapScreen: React.FC = () => {
         }
     };
 
+    // Clusters and pins for the visible region, computed by the server
+    const loadMapMarkers = async (region: Region) => {
+        regionRef.current = region;
+        const zoom = Math.round(Math.log2(360 / region.longitudeDelta));
+        try {
+            const markers = await eventService.getMapMarkers({
+                minLat: Math.max(-90, region.latitude - region.latitudeDelta / 2),
+                minLng: Math.max(-180, region.longitude - region.longitudeDelta / 2),
+                maxLat: Math.min(90, region.latitude + region.latitudeDelta / 2),
+                maxLng: Math.min(180, region.longitude + region.longitudeDelta / 2),
+                zoom: Math.max(0, Math.min(MAX_MAP_ZOOM, zoom)),
+            });
+            setMapMarkers(markers);
+        } catch (error: any) {
+            console.error('Error loading map markers:', error);
+        }
+    };
+
+    const handleClusterPress = (cluster: EventMapCluster) => {
+        mapRef.current?.animateToRegion({
+            latitude: cluster.latitude,
+            longitude: cluster.longitude,
+            latitudeDelta: regionRef.current.latitudeDelta / 4,
+            longitudeDelta: regionRef.current.longitudeDelta / 4,
+        }, 300);
+    };
+
+    const handlePinPress = async (pin: EventMapPin) => {
+        try {
+            const event = events.find(e => e.id === pin.id) ?? await eventService.getById(pin.id);
+            handleMarkerPress(event);
+        } catch (error: any) {
+            console.error('Error loading event:', error);
+        }
+    };
+
     const handleMarkerPress = (event: Event) => {
         setSelectedEvent(event);
         setShowDirections(false);
@@ -380,6 +427,37 @@ export const MapScreen: React.FC = () => {
         setShowSearchResults(text.trim().length > 0);
     };
 
+    const renderEventMarker = (
+        id: number,
+        latitude: number,
+        longitude: number,
+        categoryName: string,
+        onPress: () => void
+    ) => (
+        <Marker
+            key={id}
+            coordinate={{ latitude, longitude }}
+            onPress={onPress}
+        >
+            <View style={styles.markerContainer}>
+                <View style={[
+                    styles.marker,
+                    selectedEvent?.id === id && styles.markerSelected
+                ]}>
+                    <Ionicons
+                        name={getCategoryIcon(categoryName) as any}
+                        size={selectedEvent?.id === id ? 20 : 16}
+                        color={colors.text.inverse}
+                    />
+                </View>
+                <View style={[
+                    styles.markerTail,
+                    selectedEvent?.id === id && styles.markerTailSelected
+                ]} />
+            </View>
+        </Marker>
+    );
+
     if (loading) {
         return (
             <View style={styles.loadingContainer}>
@@ -397,36 +475,40 @@ export const MapScreen: React.FC = () => {
                 initialRegion={DEFAULT_REGION}
                 showsUserLocation
                 showsMyLocationButton={false}
+                onRegionChangeComplete={loadMapMarkers}
                 onPress={() => {
                     if (!showDirections) setSelectedEvent(null);
                     setShowSearchResults(false);
                     Keyboard.dismiss();
                 }}
             >
-                {filteredEvents.map((event) => (
+                {searchQuery.trim() || !mapMarkers
+                    ? filteredEvents.map((event) => renderEventMarker(
+                        event.id,
+                        event.latitude!,
+                        event.longitude!,
+                        event.categoryName,
+                        () => handleMarkerPress(event)
+                    ))
+                    : mapMarkers.pins.map((pin) => renderEventMarker(
+                        pin.id,
+                        pin.latitude,
+                        pin.longitude,
+                        pin.categoryName ?? '',
+                        () => handlePinPress(pin)
+                    ))}
+
+                {!searchQuery.trim() && mapMarkers?.clusters.map((cluster) => (
                     <Marker
-                        key={event.id}
+                        key={cluster.geohash}
                         coordinate={{
-                            latitude: event.latitude!,
-                            longitude: event.longitude!,
+                            latitude: cluster.latitude,
+                            longitude: cluster.longitude,
                         }}
-                        onPress={() => handleMarkerPress(event)}
+                        onPress={() => handleClusterPress(cluster)}
                     >
-                        <View style={styles.markerContainer}>
-                            <View style={[
-                                styles.marker,
-                                selectedEvent?.id === event.id && styles.markerSelected
-                            ]}>
-                                <Ionicons
-                                    name={getCategoryIcon(event.categoryName) as any}
-                                    size={selectedEvent?.id === event.id ? 20 : 16}
-                                    color={colors.text.inverse}
-                                />
-                            </View>
-                            <View style={[
-                                styles.markerTail,
-                                selectedEvent?.id === event.id && styles.markerTailSelected
-                            ]} />
+                        <View style={styles.cluster}>
+                            <Text style={styles.clusterText}>{cluster.count}</Text>
                         </View>
                     </Marker>
                 ))}
@@ -1020,6 +1102,23 @@ const styles = StyleSheet.create({
         borderRightWidth: 10,
         borderTopWidth: 12,
     },
+    cluster: {
+        minWidth: 44,
+        height: 44,
+        paddingHorizontal: spacing.sm,
+        borderRadius: 22,
+        backgroundColor: colors.primary,
+        justifyContent: 'center',
+        alignItems: 'center',
+        borderWidth: 3,
+        borderColor: colors.surface,
+        ...shadows.md,
+    },
+    clusterText: {
+        fontSize: typography.body.fontSize,
+        fontWeight: '700',
+        color: colors.text.inverse,
+    },
     // Empty State
     emptyState: {
         position: 'absolute',
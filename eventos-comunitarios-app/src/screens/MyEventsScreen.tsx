@@ -20,7 +20,7 @@ import { eventService } from '../services/eventService';
 import { favoriteService } from '../services/favoriteService';
 import { EventCard } from '../components/EventCard';
 import { Button } from '../components/Button';
-import type { Event } from '../types/models';
+import type { EventSummary } from '../types/models';
 import { colors, spacing, typography, borderRadius, shadows } from '../theme';
 
 type MyEventsNavigationProp = NativeStackNavigationProp<MyEventsStackParamList, 'MyEventsList'>;
@@ -75,10 +75,10 @@ export const MyEventsScreen: React.FC = () => {
 
     // State
     const [activeTab, setActiveTab] = useState<Tab>('favorites');
-    const [allOrganized, setAllOrganized] = useState<Event[]>([]);
-    const [allFavorites, setAllFavorites] = useState<Event[]>([]);
-    const [allAttending, setAllAttending] = useState<Event[]>([]);
-    const [displayedEvents, setDisplayedEvents] = useState<Event[]>([]);
+    const [allOrganized, setAllOrganized] = useState<EventSummary[]>([]);
+    const [allFavorites, setAllFavorites] = useState<EventSummary[]>([]);
+    const [allAttending, setAllAttending] = useState<EventSummary[]>([]);
+    const [displayedEvents, setDisplayedEvents] = useState<EventSummary[]>([]);
     const [loading, setLoading] = useState(true);
     const [refreshing, setRefreshing] = useState(false);
 
@@ -116,7 +116,7 @@ export const MyEventsScreen: React.FC = () => {
     };
 
     const filterEventsByTab = useCallback(() => {
-        let result: Event[] = [];
+        let result: EventSummary[] = [];
 
         if (activeTab === 'favorites') {
             result = allFavorites;
@@ -134,7 +134,7 @@ export const MyEventsScreen: React.FC = () => {
         loadAllEvents();
     };
 
-    const handleEventPress = (event: Event) => {
+    const handleEventPress = (event: EventSummary) => {
         navigation.navigate('EventDetail', { eventId: event.id });
     };
 
@@ -189,7 +189,7 @@ export const MyEventsScreen: React.FC = () => {
         }
     };
 
-    const renderEventItem = ({ item }: { item: Event }) => (
+    const renderEventItem = ({ item }: { item: EventSummary }) => (
         <View style={styles.eventItemContainer}>
             <EventCard event={item} onPress={() => handleEventPress(item)} />
 
@@ -1,10 +1,12 @@
 import api from './api';
-import type { Comment } from '../types/models';
+import type { Comment, CursorPage } from '../types/models';
 
 export const commentService = {
-    // Get all comments for an event
-    async getComments(eventId: number): Promise<Comment[]> {
-        const response = await api.get(`/events/${eventId}/comments`);
+    // Get a page of comments for an event, newest first; pass nextCursor to get older ones
+    async getComments(eventId: number, cursor?: string): Promise<CursorPage<Comment>> {
+        const response = await api.get<CursorPage<Comment>>(`/events/${eventId}/comments`, {
+            params: cursor ? { cursor } : undefined,
+        });
         return response.data;
     },
 
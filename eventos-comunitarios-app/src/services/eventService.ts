@@ -1,13 +1,56 @@
+import AsyncStorage from '@react-native-async-storage/async-storage';
 import api from './api';
-import { ENDPOINTS } from '../constants/api';
-import type { Event, EventRequest } from '../types/models';
+import { ENDPOINTS, STORAGE_KEYS } from '../constants/api';
+import type {
+    CursorPage,
+    Event,
+    EventChanges,
+    EventMapResponse,
+    EventRequest,
+    EventSummary,
+} from '../types/models';
+
+// Local copy of the public catalog, kept current with delta sync. The responses carry the
+// caller's flags, so the copy starts over when the signed-in user changes.
+const syncState = {
+    token: null as string | null,
+    watermark: null as string | null,
+    events: new Map<number, Event>(),
+};
 
 export const eventService = {
     /**
-     * Get all public published events
+     * Get all public published events, soonest first. Only the changes since the
+     * previous call are downloaded.
      */
     async getAll(): Promise<Event[]> {
-        const response = await api.get<Event[]>(ENDPOINTS.EVENTS);
+        const token = await AsyncStorage.getItem(STORAGE_KEYS.TOKEN);
+        if (token !== syncState.token) {
+            syncState.token = token;
+            syncState.watermark = null;
+            syncState.events.clear();
+        }
+
+        let changes: EventChanges;
+        do {
+            changes = await eventService.getChanges(syncState.watermark);
+            changes.events.forEach((event) => syncState.events.set(event.id, event));
+            changes.removedEventIds.forEach((id) => syncState.events.delete(id));
+            syncState.watermark = changes.watermark;
+        } while (changes.hasMore);
+
+        return Array.from(syncState.events.values()).sort(
+            (a, b) => a.startDate.localeCompare(b.startDate) || a.id - b.id
+        );
+    },
+
+    /**
+     * Get the events changed since a watermark (everything when null)
+     */
+    async getChanges(since: string | null, limit = 100): Promise<EventChanges> {
+        const response = await api.get<EventChanges>(ENDPOINTS.EVENTS_CHANGES, {
+            params: { since: since ?? undefined, limit },
+        });
         return response.data;
     },
 
@@ -27,27 +70,80 @@ export const eventService = {
         categoryId?: number;
         startDate?: string;
         endDate?: string;
+        status?: Event['status'];
+        organizerId?: number;
+        seatsAvailable?: boolean;
+        minLat?: number;
+        minLng?: number;
+        maxLat?: number;
+        maxLng?: number;
+        sort?: 'START_DATE' | 'NEWEST' | 'RELEVANCE';
     }): Promise<Event[]> {
-        const response = await api.get<Event[]>(ENDPOINTS.EVENT_SEARCH, { params });
+        const { query, ...filters } = params;
+        const response = await api.get<CursorPage<Event>>(ENDPOINTS.EVENT_SEARCH, {
+            params: { q: query, ...filters },
+        });
+        return response.data.items;
+    },
+
+    /**
+     * Get published events around a point, nearest first
+     */
+    async getNearby(params: {
+        lat: number;
+        lng: number;
+        radiusKm?: number;
+        limit?: number;
+    }): Promise<Event[]> {
+        const response = await api.get<Event[]>(ENDPOINTS.EVENTS_NEARBY, { params });
         return response.data;
     },
 
     /**
-     * Get events organized by current user
+     * Get the public events with the most recent activity, optionally of one category
      */
-    async getMyEvents(): Promise<Event[]> {
-        const response = await api.get<Event[]>(ENDPOINTS.MY_EVENTS);
+    async getTrending(params?: {
+        categoryId?: number;
+        limit?: number;
+    }): Promise<Event[]> {
+        const response = await api.get<Event[]>(ENDPOINTS.EVENTS_TRENDING, { params });
         return response.data;
     },
 
     /**
-     * Get events the user is attending (registered as participant)
+     * Get clustered markers (low zoom) or pins (high zoom) for a map viewport
      */
-    async getAttendingEvents(): Promise<Event[]> {
-        const response = await api.get<Event[]>(ENDPOINTS.ATTENDING_EVENTS);
+    async getMapMarkers(params: {
+        minLat: number;
+        minLng: number;
+        maxLat: number;
+        maxLng: number;
+        zoom: number;
+    }): Promise<EventMapResponse> {
+        const response = await api.get<EventMapResponse>(ENDPOINTS.EVENTS_MAP, { params });
         return response.data;
     },
 
+    /**
+     * Get events organized by current user
+     */
+    async getMyEvents(): Promise<EventSummary[]> {
+        const response = await api.get<CursorPage<EventSummary>>(ENDPOINTS.MY_EVENTS, {
+            params: { view: 'summary' },
+        });
+        return response.data.items;
+    },
+
+    /**
+     * Get events the user is attending (registered as participant)
+     */
+    async getAttendingEvents(): Promise<EventSummary[]> {
+        const response = await api.get<CursorPage<EventSummary>>(ENDPOINTS.ATTENDING_EVENTS, {
+            params: { view: 'summary' },
+        });
+        return response.data.items;
+    },
+
     /**
      * Create a new event
      */
@@ -0,0 +1,77 @@
+import { API_URL, ENDPOINTS } from '../constants/api';
+import type { Comment, Event } from '../types/models';
+
+export interface EventStreamUpdate {
+    eventId: number;
+    comments?: {
+        type: 'CREATED' | 'UPDATED' | 'DELETED';
+        commentId: number;
+        // Without isOwner; absent for DELETED
+        comment?: Omit<Comment, 'isOwner'>;
+    }[];
+    counters?: Pick<Event, 'status' | 'participantCount' | 'commentCount' | 'favoriteCount' | 'ratingCount' | 'averageRating'>;
+    deleted?: boolean;
+}
+
+const RECONNECT_DELAY_MS = 5000;
+
+/**
+ * Live updates of an event over Server-Sent Events. React Native has no
+ * EventSource, so the stream is read through XMLHttpRequest progress events.
+ * Reconnects after a drop; onReconnect lets the screen reload what it missed.
+ * Returns a function that closes the stream.
+ */
+export const subscribeToEvent = (
+    eventId: number,
+    onUpdate: (update: EventStreamUpdate) => void,
+    onReconnect?: () => void,
+): (() => void) => {
+    let xhr: XMLHttpRequest | null = null;
+    let closed = false;
+    let reconnectTimer: ReturnType<typeof setTimeout> | null = null;
+
+    const connect = (isReconnect: boolean) => {
+        let parsed = 0;
+        xhr = new XMLHttpRequest();
+        xhr.open('GET', `${API_URL}${ENDPOINTS.EVENT_STREAM(eventId)}`);
+        xhr.setRequestHeader('Accept', 'text/event-stream');
+        xhr.onprogress = () => {
+            const text = xhr?.responseText ?? '';
+            // Messages end with a blank line; anything after the last one is still arriving
+            const end = text.lastIndexOf('\n\n');
+            if (end < parsed) return;
+            const messages = text.substring(parsed, end).split('\n\n');
+            parsed = end + 2;
+            for (const message of messages) {
+                const data = message
+                    .split('\n')
+                    .filter(line => line.startsWith('data:'))
+                    .map(line => line.substring(5))
+                    .join('\n');
+                if (data) {
+                    const update: EventStreamUpdate = JSON.parse(data);
+                    onUpdate(update);
+                    if (update.deleted) {
+                        closed = true;
+                    }
+                }
+            }
+        };
+        xhr.onloadend = () => {
+            if (closed) return;
+            reconnectTimer = setTimeout(() => connect(true), RECONNECT_DELAY_MS);
+        };
+        xhr.send();
+        if (isReconnect) {
+            onReconnect?.();
+        }
+    };
+
+    connect(false);
+
+    return () => {
+        closed = true;
+        if (reconnectTimer) clearTimeout(reconnectTimer);
+        xhr?.abort();
+    };
+};
@@ -1,11 +1,14 @@
 import api from './api';
-import type { Event } from '../types/models';
+import { isNetworkError, mutationQueue } from './mutationQueue';
+import type { CursorPage, EventSummary } from '../types/models';
 
 export const favoriteService = {
     // Get all favorite events for the current user
-    async getUserFavorites(): Promise<Event[]> {
-        const response = await api.get('/users/favorites');
-        return response.data;
+    async getUserFavorites(): Promise<EventSummary[]> {
+        const response = await api.get<CursorPage<EventSummary>>('/users/favorites', {
+            params: { view: 'summary' },
+        });
+        return response.data.items;
     },
 
     // Check if an event is favorite for the current user
@@ -14,14 +17,24 @@ export const favoriteService = {
         return response.data.isFavorite;
     },
 
-    // Add event to favorites
+    // Add event to favorites, or queue it for later when offline
     async addFavorite(eventId: number): Promise<void> {
-        await api.post(`/events/${eventId}/favorite`);
+        try {
+            await api.post(`/events/${eventId}/favorite`);
+        } catch (error: any) {
+            if (!isNetworkError(error)) throw error;
+            await mutationQueue.enqueue({ type: 'FAVORITE_ADD', eventId });
+        }
     },
 
-    // Remove event from favorites
+    // Remove event from favorites, or queue it for later when offline
     async removeFavorite(eventId: number): Promise<void> {
-        await api.delete(`/events/${eventId}/favorite`);
+        try {
+            await api.delete(`/events/${eventId}/favorite`);
+        } catch (error: any) {
+            if (!isNetworkError(error)) throw error;
+            await mutationQueue.enqueue({ type: 'FAVORITE_REMOVE', eventId });
+        }
     },
 
     // Toggle favorite status
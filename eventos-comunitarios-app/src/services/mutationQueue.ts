@@ -0,0 +1,103 @@
+import AsyncStorage from '@react-native-async-storage/async-storage';
+import api from './api';
+import { ENDPOINTS, STORAGE_KEYS } from '../constants/api';
+
+export type MutationType =
+    | 'FAVORITE_ADD'
+    | 'FAVORITE_REMOVE'
+    | 'RATING_SET'
+    | 'RATING_DELETE'
+    | 'COMMENT_CREATE'
+    | 'COMMENT_UPDATE'
+    | 'COMMENT_DELETE'
+    | 'ATTENDANCE_REGISTER'
+    | 'ATTENDANCE_CANCEL';
+
+export interface PendingMutation {
+    // Lets the server recognise an operation it already applied when a batch is resent
+    clientOperationId: string;
+    type: MutationType;
+    eventId?: number;
+    commentId?: number;
+    score?: number;
+    content?: string;
+}
+
+interface MutationResult {
+    clientOperationId: string;
+    status: 'APPLIED' | 'REPLAYED' | 'FAILED';
+    resourceId?: number;
+    waitlistPosition?: number;
+    errorStatus?: number;
+    message?: string;
+}
+
+// Same limit as the server
+const MAX_BATCH_SIZE = 100;
+
+// Failures worth sending again later; anything else would fail the same way every time
+const RETRYABLE_STATUSES = [409, 503];
+
+let flushing: Promise<void> | null = null;
+
+const readQueue = async (): Promise<PendingMutation[]> => {
+    const stored = await AsyncStorage.getItem(STORAGE_KEYS.PENDING_MUTATIONS);
+    return stored ? JSON.parse(stored) : [];
+};
+
+const newOperationId = () =>
+    `${Date.now().toString(36)}-${Math.random().toString(36).substring(2, 10)}`;
+
+// A request that got no response at all, as opposed to an error answer from the server
+export const isNetworkError = (error: any) => !error?.status;
+
+/**
+ * Changes made while offline, kept in AsyncStorage and sent to the server in
+ * batches of up to 100 operations per request once it can be reached again.
+ */
+export const mutationQueue = {
+    async enqueue(mutation: Omit<PendingMutation, 'clientOperationId'>): Promise<void> {
+        const queue = await readQueue();
+        queue.push({ ...mutation, clientOperationId: newOperationId() });
+        await AsyncStorage.setItem(STORAGE_KEYS.PENDING_MUTATIONS, JSON.stringify(queue));
+    },
+
+    // Sends the queue in order; stops at the first batch that cannot be delivered
+    flush(): Promise<void> {
+        if (!flushing) {
+            flushing = (async () => {
+                try {
+                    let queue = await readQueue();
+                    while (queue.length > 0) {
+                        const batch = queue.slice(0, MAX_BATCH_SIZE);
+                        const response = await api.post<{ results: MutationResult[] }>(
+                            ENDPOINTS.SYNC_MUTATIONS,
+                            { operations: batch },
+                        );
+                        const retry = new Set(response.data.results
+                            .filter(r => r.status === 'FAILED' && RETRYABLE_STATUSES.includes(r.errorStatus ?? 0))
+                            .map(r => r.clientOperationId));
+                        // Operations queued while the batch was in flight are kept as well
+                        const sent = new Set(batch.map(m => m.clientOperationId));
+                        const remaining = (await readQueue())
+                            .filter(m => !sent.has(m.clientOperationId) || retry.has(m.clientOperationId));
+                        await AsyncStorage.setItem(STORAGE_KEYS.PENDING_MUTATIONS, JSON.stringify(remaining));
+                        if (retry.size > 0) break;
+                        queue = remaining;
+                    }
+                } catch (error: any) {
+                    if (!isNetworkError(error)) {
+                        console.error('Error sending offline changes:', error);
+                    }
+                } finally {
+                    flushing = null;
+                }
+            })();
+        }
+        return flushing;
+    },
+
+    async clear(): Promise<void> {
+        await AsyncStorage.removeItem(STORAGE_KEYS.PENDING_MUTATIONS);
+    },
+};
@@ -2,12 +2,42 @@ import api from './api';
 import { ENDPOINTS } from '../constants/api';
 import type { AttendanceRequest } from '../types/models';
 
+const TICKET_POLL_INTERVAL_MS = 1500;
+
+interface RegistrationTicket {
+    ticketId: string;
+    status: 'QUEUED' | 'REGISTERED' | 'WAITLISTED' | 'REJECTED';
+    queuePosition?: number;
+    waitlistPosition?: number;
+    message?: string;
+}
+
+const sleep = (ms: number) => new Promise(resolve => setTimeout(resolve, ms));
+
 export const participantService = {
     /**
-     * Register attendance for an event
+     * Register attendance for an event. Returns the waitlist position when the
+     * event is full, null when a seat was taken. During a registration rush the
+     * server answers with a ticket, which is polled until it is processed.
      */
-    async registerAttendance(eventId: number, status: AttendanceRequest['status'] = 'CONFIRMED') {
-        await api.post(ENDPOINTS.ATTENDANCE(eventId), { status });
+    async registerAttendance(eventId: number, status: AttendanceRequest['status'] = 'CONFIRMED'): Promise<number | null> {
+        const response = await api.post<{ message?: string; waitlistPosition?: string } & Partial<RegistrationTicket>>(
+            ENDPOINTS.ATTENDANCE(eventId), { status });
+        if (!response.data.ticketId) {
+            return response.data.waitlistPosition ? Number(response.data.waitlistPosition) : null;
+        }
+
+        let ticket = response.data as RegistrationTicket;
+        while (ticket.status === 'QUEUED') {
+            await sleep(TICKET_POLL_INTERVAL_MS);
+            const polled = await api.get<RegistrationTicket>(
+                ENDPOINTS.ATTENDANCE_TICKET(eventId, ticket.ticketId));
+            ticket = polled.data;
+        }
+        if (ticket.status === 'REJECTED') {
+            throw new Error(ticket.message || 'No se pudo registrar la asistencia');
+        }
+        return ticket.status === 'WAITLISTED' ? ticket.waitlistPosition ?? null : null;
     },
 
     /**
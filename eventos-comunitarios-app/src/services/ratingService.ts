@@ -1,5 +1,7 @@
 import api from './api';
-import type { Rating } from '../types/models';
+import { isNetworkError, mutationQueue } from './mutationQueue';
+import { ENDPOINTS } from '../constants/api';
+import type { Rating, RatingSummary } from '../types/models';
 
 export const ratingService = {
     // Get all ratings for an event
@@ -8,17 +10,27 @@ export const ratingService = {
         return response.data;
     },
 
-    // Add or update rating for an event
-    async addRating(eventId: number, score: number): Promise<Rating> {
-        const response = await api.post(`/events/${eventId}/ratings`, { score });
+    // Add or update rating for an event. Offline, the rating is queued and null is returned.
+    async addRating(eventId: number, score: number): Promise<Rating | null> {
+        try {
+            const response = await api.post(`/events/${eventId}/ratings`, { score });
+            return response.data;
+        } catch (error: any) {
+            if (!isNetworkError(error)) throw error;
+            await mutationQueue.enqueue({ type: 'RATING_SET', eventId, score });
+            return null;
+        }
+    },
+
+    // Count, average and score distribution, kept up to date by the server
+    async getRatingSummary(eventId: number): Promise<RatingSummary> {
+        const response = await api.get<RatingSummary>(ENDPOINTS.RATING_SUMMARY(eventId));
         return response.data;
     },
 
     // Get average rating for an event
     async getAverageRating(eventId: number): Promise<number> {
-        const ratings = await this.getRatings(eventId);
-        if (ratings.length === 0) return 0;
-        const sum = ratings.reduce((acc, rating) => acc + rating.score, 0);
-        return sum / ratings.length;
+        const summary = await this.getRatingSummary(eventId);
+        return summary.averageRating ?? 0;
     },
 };
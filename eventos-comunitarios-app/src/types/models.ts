@@ -59,6 +59,52 @@ export interface Event {
     isOrganizer: boolean;
     hasUserRegistered: boolean;
     isFavorite: boolean;
+    distanceKm?: number;
+}
+
+// What list views get with view=summary: no description, organizer or user flags
+export interface EventSummary {
+    id: number;
+    title: string;
+    categoryId: number;
+    categoryName: string;
+    startDate: string;
+    endDate: string;
+    location: string;
+    latitude?: number;
+    longitude?: number;
+    coverImage?: string;
+    status: 'DRAFT' | 'PUBLISHED' | 'CANCELLED' | 'ARCHIVED';
+    createdAt: string;
+    participantCount: number;
+    commentCount: number;
+    favoriteCount: number;
+    ratingCount: number;
+    averageRating?: number;
+    distanceKm?: number;
+}
+
+export interface EventMapCluster {
+    geohash: string;
+    count: number;
+    latitude: number;
+    longitude: number;
+    eventIds: number[];
+}
+
+export interface EventMapPin {
+    id: number;
+    title: string;
+    latitude: number;
+    longitude: number;
+    categoryId?: number;
+    categoryName?: string;
+}
+
+export interface EventMapResponse {
+    zoom: number;
+    clusters: EventMapCluster[];
+    pins: EventMapPin[];
 }
 
 export interface EventRequest {
@@ -107,6 +153,14 @@ export interface Rating {
     createdAt: string;
 }
 
+export interface RatingSummary {
+    eventId: number;
+    ratingCount: number;
+    averageRating?: number;
+    // Scores 1 to 5, in order
+    distribution: { score: number; count: number; percentage: number }[];
+}
+
 export interface RatingRequest {
     score: number;
     comment?: string;
@@ -116,6 +170,19 @@ export interface AttendanceRequest {
     status: 'CONFIRMED' | 'CANCELLED' | 'ATTENDED' | 'NOT_ATTENDED';
 }
 
+export interface EventChanges {
+    events: Event[];
+    removedEventIds: number[];
+    watermark: string;
+    hasMore: boolean;
+}
+
+export interface CursorPage<T> {
+    items: T[];
+    limit: number;
+    nextCursor?: string | null;
+}
+
 export interface ApiError {
     timestamp: string;
     status: number;